@@ -18,3 +18,9 @@ export const register = async (user: UserRegister) => {
   });
   return res.data;
 };
+
+// Kiểm tra username/email còn trống (server trả lời từ bộ nhớ, không cần query DB trong đa số trường hợp)
+export const checkAvailability = async (params: { username?: string; email?: string }) => {
+  const res = await axiosInstance.get('/auth/availability', { params });
+  return res.data;
+};
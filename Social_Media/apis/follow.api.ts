@@ -0,0 +1,17 @@
+import axiosInstance from '@/utils/axiosInstance';
+import { CursorPage } from './post.api';
+import { ProfileCard } from './profile.api';
+
+export const getFollowers = async (userId: number, cursor?: string | null, limit = 20): Promise<CursorPage<ProfileCard>> => {
+  const res = await axiosInstance.get(`/users/${userId}/followers`, {
+    params: { cursor: cursor ?? undefined, limit },
+  });
+  return res.data.data;
+};
+
+export const getFollowing = async (userId: number, cursor?: string | null, limit = 20): Promise<CursorPage<ProfileCard>> => {
+  const res = await axiosInstance.get(`/users/${userId}/following`, {
+    params: { cursor: cursor ?? undefined, limit },
+  });
+  return res.data.data;
+};
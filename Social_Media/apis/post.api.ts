@@ -0,0 +1,123 @@
+import axiosInstance from '@/utils/axiosInstance';
+import { ProfileCard } from './profile.api';
+
+export type PostVisibility = 'PUBLIC' | 'PRIVATE' | 'FRIENDS_ONLY';
+
+export interface PostMedia {
+  id: number;
+  postId: number;
+  mediaType: 'IMAGE' | 'VIDEO' | 'REEL';
+  url: string;
+  thumbnailUrl?: string;
+  feedUrl?: string;
+  width?: number;
+  height?: number;
+  durationMs?: number;
+  orderInPost: number;
+}
+
+export interface Post {
+  id: number;
+  author: ProfileCard;
+  caption: string;
+  location: string;
+  visibility: PostVisibility;
+  likeCount: number;
+  commentCount: number;
+  likedByMe: boolean;
+  media: PostMedia[];
+  createdAt: string;
+}
+
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor: string | null;
+}
+
+export interface CreatePostPayload {
+  caption?: string;
+  location?: string;
+  visibility?: PostVisibility;
+}
+
+export const createPost = async (payload: CreatePostPayload): Promise<Post> => {
+  const res = await axiosInstance.post('/posts', payload);
+  return res.data.data;
+};
+
+// Home feed phân trang theo con trỏ: truyền nextCursor của trang trước để lấy trang tiếp
+export const getHomeFeed = async (cursor?: string | null, limit = 20): Promise<CursorPage<Post>> => {
+  const res = await axiosInstance.get('/feed/home', {
+    params: { cursor: cursor ?? undefined, limit },
+  });
+  return res.data.data;
+};
+
+export interface Comment {
+  id: number;
+  postId: number;
+  parentId: number | null;
+  // null khi bình luận đã bị xoá (deleted = true) nhưng còn trả lời
+  author: ProfileCard | null;
+  content: string | null;
+  likeCount: number;
+  replyCount: number;
+  createdAt: string;
+  deleted: boolean;
+  replies?: Comment[];
+  repliesCursor?: string | null;
+}
+
+export const getUserPosts = async (userId: number, cursor?: string | null, limit = 20): Promise<CursorPage<Post>> => {
+  const res = await axiosInstance.get(`/users/${userId}/posts`, {
+    params: { cursor: cursor ?? undefined, limit },
+  });
+  return res.data.data;
+};
+
+export const getSavedPosts = async (cursor?: string | null, limit = 20): Promise<CursorPage<Post>> => {
+  const res = await axiosInstance.get('/posts/saved', {
+    params: { cursor: cursor ?? undefined, limit },
+  });
+  return res.data.data;
+};
+
+export const getComments = async (postId: number, cursor?: string | null, limit = 20): Promise<CursorPage<Comment>> => {
+  const res = await axiosInstance.get(`/posts/${postId}/comments`, {
+    params: { cursor: cursor ?? undefined, limit },
+  });
+  return res.data.data;
+};
+
+export interface LikeResult {
+  postId: number;
+  liked: boolean;
+  likeCount: number;
+}
+
+// "Xem thêm trả lời": lần đầu truyền repliesCursor của bình luận, các lần sau truyền nextCursor
+export const getReplies = async (commentId: number, cursor?: string | null, limit = 20): Promise<CursorPage<Comment>> => {
+  const res = await axiosInstance.get(`/comments/${commentId}/replies`, {
+    params: { cursor: cursor ?? undefined, limit },
+  });
+  return res.data.data;
+};
+
+// Idempotent: gọi lại nhiều lần (ví dụ khi retry) không làm sai số like
+export const likePost = async (postId: number): Promise<LikeResult> => {
+  const res = await axiosInstance.put(`/posts/${postId}/like`);
+  return res.data.data;
+};
+
+export const unlikePost = async (postId: number): Promise<LikeResult> => {
+  const res = await axiosInstance.delete(`/posts/${postId}/like`);
+  return res.data.data;
+};
+
+// Lưới Explore: bài công khai phổ biến, đã bỏ bài của người chặn / bị chặn
+export const getExplore = async (cursor?: string | null, limit = 30): Promise<CursorPage<Post>> => {
+  const res = await axiosInstance.get('/feed/explore', {
+    params: { cursor: cursor ?? undefined, limit },
+  });
+  return res.data.data;
+};
@@ -6,6 +6,8 @@ export interface ProfileData {
   website: string;
   location: string;
   avatarUrl: string;
+  // PENDING khi ảnh mới đang được upload nền
+  avatarStatus?: 'READY' | 'PENDING' | 'FAILED';
   followersCount: number;
   followingCount: number;
   postsCount: number;
@@ -33,9 +35,23 @@ export interface UpdateProfilePayload {
   private?: boolean;
 }
 
+// Bản profile gần nhất cùng ETag, dùng để gửi If-None-Match
+let cachedProfile: { etag: string; response: ProfileResponse } | null = null;
+
 // GET profile
 export const getProfile = async (): Promise<ProfileResponse> => {
-  const res = await axiosInstance.get('/profile');
+  const res = await axiosInstance.get('/profile', {
+    headers: cachedProfile ? { 'If-None-Match': cachedProfile.etag } : undefined,
+    validateStatus: (status) => (status >= 200 && status < 300) || status === 304,
+  });
+
+  // 304: server xác nhận profile không đổi, dùng lại bản đã lưu
+  if (res.status === 304 && cachedProfile) {
+    return cachedProfile.response;
+  }
+
+  const etag = res.headers['etag'];
+  cachedProfile = etag ? { etag, response: res.data } : null;
   return res.data;
 };
 
@@ -80,6 +96,26 @@ export const updateProfile = async (
       'Content-Type': 'multipart/form-data',
     },
   });
+  cachedProfile = null;
   return res.data;
 };
 
+
+export interface ProfileCard {
+  userId: number;
+  displayName: string;
+  avatarUrl: string;
+  private: boolean;
+}
+
+// Lấy thẻ profile cho nhiều user trong một request thay vì gọi từng người
+export const getProfileCards = async (ids: number[]): Promise<ProfileCard[]> => {
+  if (ids.length === 0) {
+    return [];
+  }
+  const unique = Array.from(new Set(ids));
+  const res = await axiosInstance.get('/profile/cards', {
+    params: { ids: unique.join(',') },
+  });
+  return res.data.data;
+};
@@ -0,0 +1,31 @@
+import axiosInstance from '@/utils/axiosInstance';
+import { CursorPage, Post } from './post.api';
+import { ProfileCard } from './profile.api';
+
+export interface TagResult {
+  id: number;
+  name: string;
+  postCount: number;
+}
+
+// Tìm không phân biệt dấu: "nguyen" khớp "Nguyễn", từ cuối khớp theo tiền tố
+export const searchPosts = async (q: string, cursor?: string | null, limit = 20): Promise<CursorPage<Post>> => {
+  const res = await axiosInstance.get('/search/posts', {
+    params: { q, cursor: cursor ?? undefined, limit },
+  });
+  return res.data.data;
+};
+
+export const searchUsers = async (q: string, cursor?: string | null, limit = 20): Promise<CursorPage<ProfileCard>> => {
+  const res = await axiosInstance.get('/search/users', {
+    params: { q, cursor: cursor ?? undefined, limit },
+  });
+  return res.data.data;
+};
+
+export const searchTags = async (q: string, cursor?: string | null, limit = 20): Promise<CursorPage<TagResult>> => {
+  const res = await axiosInstance.get('/search/tags', {
+    params: { q, cursor: cursor ?? undefined, limit },
+  });
+  return res.data.data;
+};
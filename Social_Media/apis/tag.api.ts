@@ -0,0 +1,15 @@
+import axiosInstance from '@/utils/axiosInstance';
+
+export type TrendingWindow = '1h' | '24h';
+
+export interface TrendingTag {
+  name: string;
+  score: number;
+  count: number;
+}
+
+// Hashtag thịnh hành cho màn Explore
+export const getTrendingTags = async (window: TrendingWindow = '1h', limit = 20): Promise<TrendingTag[]> => {
+  const res = await axiosInstance.get('/tags/trending', { params: { window, limit } });
+  return res.data.data;
+};
@@ -1,4 +1,4 @@
-import { register as registerApi } from '@/apis/auth.api';
+import { checkAvailability, register as registerApi } from '@/apis/auth.api';
 import { useRouter } from 'expo-router';
 import React, { useState } from 'react';
 import {
@@ -23,6 +23,29 @@ export default function Register() {
   const [password, setPassword] = useState('');
   const [confirmPassword, setConfirmPassword] = useState('');
   const [loading, setLoading] = useState(false);
+  const [usernameTaken, setUsernameTaken] = useState(false);
+  const [emailTaken, setEmailTaken] = useState(false);
+
+  const checkUsername = async () => {
+    if (username.trim().length < 4) return;
+    try {
+      const res = await checkAvailability({ username: username.trim() });
+      setUsernameTaken(res.data?.usernameAvailable === false);
+    } catch (err) {
+      // Không chặn đăng ký nếu kiểm tra thất bại, server sẽ kiểm tra lại khi submit
+      setUsernameTaken(false);
+    }
+  };
+
+  const checkEmail = async () => {
+    if (!email.trim()) return;
+    try {
+      const res = await checkAvailability({ email: email.trim() });
+      setEmailTaken(res.data?.emailAvailable === false);
+    } catch (err) {
+      setEmailTaken(false);
+    }
+  };
 
   const handleRegister = async () => {
     if (!username || !email || !fullName || !password || !confirmPassword) {
@@ -92,9 +115,14 @@ export default function Register() {
               autoCapitalize="none"
               autoCorrect={false}
               value={username}
-              onChangeText={setUsername}
+              onChangeText={(text) => {
+                setUsername(text);
+                setUsernameTaken(false);
+              }}
+              onBlur={checkUsername}
               style={styles.input}
             />
+            {usernameTaken && <Text style={styles.fieldError}>Tên đăng nhập đã tồn tại</Text>}
             <TextInput
               placeholder="Email"
               placeholderTextColor="#8e8e8e"
@@ -102,9 +130,14 @@ export default function Register() {
               autoCapitalize="none"
               autoCorrect={false}
               value={email}
-              onChangeText={setEmail}
+              onChangeText={(text) => {
+                setEmail(text);
+                setEmailTaken(false);
+              }}
+              onBlur={checkEmail}
               style={styles.input}
             />
+            {emailTaken && <Text style={styles.fieldError}>Email đã tồn tại</Text>}
             <TextInput
               placeholder="Họ và tên"
               placeholderTextColor="#8e8e8e"
@@ -216,6 +249,12 @@ const styles = StyleSheet.create({
     marginBottom: 12,
     color: '#262626',
   },
+  fieldError: {
+    color: '#ed4956',
+    fontSize: 12,
+    marginTop: -8,
+    marginBottom: 12,
+  },
   registerButton: {
     backgroundColor: '#0095f6',
     borderRadius: 4,
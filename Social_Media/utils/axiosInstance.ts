@@ -91,8 +91,10 @@ axiosInstance.interceptors.response.use(
           `${getBaseURL()}/auth/refresh`,
           { refreshToken }
         );
-        const newToken = res.data.accessToken;
+        // Refresh token được xoay vòng: phải lưu token mới, token cũ dùng lại sẽ bị thu hồi cả phiên
+        const newToken = res.data.data.accessToken;
         await AsyncStorage.setItem('accessToken', newToken);
+        await AsyncStorage.setItem('refreshToken', res.data.data.refreshToken);
         originalRequest.headers.Authorization = `Bearer ${newToken}`;
         return axiosInstance(originalRequest);
       }
@@ -1,19 +1,28 @@
 package ra.social_media;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import ra.social_media.security.password.BoundedPasswordEncoder;
 
 @SpringBootApplication
+@EnableScheduling
 public class SocialMediaApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(SocialMediaApplication.class, args);
     }
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${bcrypt_strength:10}") int strength,
+                                           @Value("${bcrypt_threads:0}") int threads,
+                                           @Value("${bcrypt_queue_capacity:64}") int queueCapacity,
+                                           @Value("${bcrypt_wait_timeout:5000}") long waitTimeoutMillis,
+                                           MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(strength, poolSize, queueCapacity, waitTimeoutMillis, meterRegistry);
     }
 }
@@ -7,9 +7,15 @@ import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import ra.social_media.exception.HttpConflict;
+import ra.social_media.exception.HttpForbidden;
+import ra.social_media.exception.HttpNotFound;
+import ra.social_media.exception.HttpServiceUnavailable;
+import ra.social_media.exception.HttpTooManyRequests;
+import ra.social_media.exception.HttpUnAuthorized;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -96,5 +102,52 @@ public class AdviceController {
         return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(HttpServiceUnavailable.class)
+    public ResponseEntity<Map<String, Object>> handleHttpServiceUnavailable(HttpServiceUnavailable ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+    @ExceptionHandler(HttpTooManyRequests.class)
+    public ResponseEntity<Map<String, Object>> handleHttpTooManyRequests(HttpTooManyRequests ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        response.put("message", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @ExceptionHandler(HttpUnAuthorized.class)
+    public ResponseEntity<Map<String, Object>> handleHttpUnAuthorized(HttpUnAuthorized ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("status", HttpStatus.UNAUTHORIZED.value());
+        response.put("message", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
+    }
+
+    @ExceptionHandler(HttpNotFound.class)
+    public ResponseEntity<Map<String, Object>> handleHttpNotFound(HttpNotFound ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("status", HttpStatus.NOT_FOUND.value());
+        response.put("message", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(HttpForbidden.class)
+    public ResponseEntity<Map<String, Object>> handleHttpForbidden(HttpForbidden ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("status", HttpStatus.FORBIDDEN.value());
+        response.put("message", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.FORBIDDEN);
+    }
+
 
-}
\ No newline at end of file
+}
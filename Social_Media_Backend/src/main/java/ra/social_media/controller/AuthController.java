@@ -4,13 +4,12 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
+import ra.social_media.model.dto.request.RefreshTokenRequest;
 import ra.social_media.model.dto.request.UserLogin;
 import ra.social_media.model.dto.request.UserRegister;
 import ra.social_media.model.dto.response.ApiDataResponse;
+import ra.social_media.model.dto.response.AvailabilityResponse;
 import ra.social_media.model.dto.response.JWTResponse;
 import ra.social_media.model.dto.response.UserRegisterResponse;
 import ra.social_media.model.entity.User;
@@ -32,6 +31,19 @@ public class AuthController {
         return new ResponseEntity<>(new ApiDataResponse<>(true,userService.login(userLogin), "success",  HttpStatus.OK), HttpStatus.OK);
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiDataResponse<JWTResponse>> refresh(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        return new ResponseEntity<>(new ApiDataResponse<>(true, userService.refreshToken(refreshTokenRequest), "success", HttpStatus.OK), HttpStatus.OK);
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<ApiDataResponse<AvailabilityResponse>> checkAvailability(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email
+    ) {
+        return new ResponseEntity<>(new ApiDataResponse<>(true, userService.checkAvailability(username, email), "success", HttpStatus.OK), HttpStatus.OK);
+    }
+
 
 
 }
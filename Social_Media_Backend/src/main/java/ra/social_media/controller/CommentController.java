@@ -0,0 +1,28 @@
+package ra.social_media.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ra.social_media.model.dto.response.ApiDataResponse;
+import ra.social_media.model.dto.response.CommentResponse;
+import ra.social_media.model.dto.response.CursorPageResponse;
+import ra.social_media.service.CommentService;
+
+@RestController
+@RequestMapping("api/v1/comments")
+public class CommentController {
+
+    @Autowired
+    private CommentService commentService;
+
+    // "Xem thêm trả lời": cursor lấy từ repliesCursor của bình luận hoặc nextCursor của trang trước
+    @GetMapping("/{commentId}/replies")
+    public ResponseEntity<ApiDataResponse<CursorPageResponse<CommentResponse>>> getReplies(
+            @PathVariable Long commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(new ApiDataResponse<>(true, commentService.getReplies(commentId, cursor, limit), "success", HttpStatus.OK));
+    }
+}
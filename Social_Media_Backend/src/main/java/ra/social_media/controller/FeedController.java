@@ -0,0 +1,42 @@
+package ra.social_media.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ra.social_media.model.dto.response.ApiDataResponse;
+import ra.social_media.model.dto.response.CursorPageResponse;
+import ra.social_media.model.dto.response.PostResponse;
+import ra.social_media.service.ExploreService;
+import ra.social_media.service.PostService;
+
+@RestController
+@RequestMapping("api/v1/feed")
+public class FeedController {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private ExploreService exploreService;
+
+    @GetMapping("/home")
+    public ResponseEntity<ApiDataResponse<CursorPageResponse<PostResponse>>> getHomeFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(new ApiDataResponse<>(true, postService.getHomeFeed(cursor, limit), "success", HttpStatus.OK));
+    }
+
+    // Lưới bài phổ biến cho Explore, xếp hạng sẵn theo chu kỳ explore_rank_interval
+    @GetMapping("/explore")
+    public ResponseEntity<ApiDataResponse<CursorPageResponse<PostResponse>>> getExplore(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "30") int limit
+    ) {
+        return ResponseEntity.ok(new ApiDataResponse<>(true, exploreService.explore(cursor, limit), "success", HttpStatus.OK));
+    }
+}
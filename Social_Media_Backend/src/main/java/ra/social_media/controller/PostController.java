@@ -0,0 +1,76 @@
+package ra.social_media.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import ra.social_media.model.dto.request.PostRequest;
+import ra.social_media.model.dto.response.ApiDataResponse;
+import ra.social_media.model.dto.response.CommentResponse;
+import ra.social_media.model.dto.response.CursorPageResponse;
+import ra.social_media.model.dto.response.LikeResponse;
+import ra.social_media.model.dto.response.MediaResponse;
+import ra.social_media.model.dto.response.PostResponse;
+import ra.social_media.service.CommentService;
+import ra.social_media.service.MediaService;
+import ra.social_media.service.PostService;
+
+@RestController
+@RequestMapping("api/v1/posts")
+public class PostController {
+
+    @Autowired
+    private MediaService mediaService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @PostMapping
+    public ResponseEntity<ApiDataResponse<PostResponse>> createPost(@Valid @RequestBody PostRequest postRequest) {
+        PostResponse post = postService.createPost(postRequest);
+        return new ResponseEntity<>(new ApiDataResponse<>(true, post, "success", HttpStatus.CREATED), HttpStatus.CREATED);
+    }
+
+    @PostMapping(value = "/{postId}/media", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiDataResponse<MediaResponse>> addMedia(
+            @PathVariable Long postId,
+            @RequestParam("file") MultipartFile file
+    ) {
+        MediaResponse media = mediaService.addImageToPost(postId, file);
+        return new ResponseEntity<>(new ApiDataResponse<>(true, media, "success", HttpStatus.CREATED), HttpStatus.CREATED);
+    }
+
+    // Bài đã lưu của người dùng hiện tại, phân trang theo con trỏ
+    @GetMapping("/saved")
+    public ResponseEntity<ApiDataResponse<CursorPageResponse<PostResponse>>> getSavedPosts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(new ApiDataResponse<>(true, postService.getSavedPosts(cursor, limit), "success", HttpStatus.OK));
+    }
+
+    @GetMapping("/{postId}/comments")
+    public ResponseEntity<ApiDataResponse<CursorPageResponse<CommentResponse>>> getComments(
+            @PathVariable Long postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(new ApiDataResponse<>(true, commentService.getComments(postId, cursor, limit), "success", HttpStatus.OK));
+    }
+
+    @PutMapping("/{postId}/like")
+    public ResponseEntity<ApiDataResponse<LikeResponse>> likePost(@PathVariable Long postId) {
+        return ResponseEntity.ok(new ApiDataResponse<>(true, postService.likePost(postId), "success", HttpStatus.OK));
+    }
+
+    @DeleteMapping("/{postId}/like")
+    public ResponseEntity<ApiDataResponse<LikeResponse>> unlikePost(@PathVariable Long postId) {
+        return ResponseEntity.ok(new ApiDataResponse<>(true, postService.unlikePost(postId), "success", HttpStatus.OK));
+    }
+}
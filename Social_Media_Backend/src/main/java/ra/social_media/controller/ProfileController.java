@@ -1,15 +1,21 @@
 package ra.social_media.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ra.social_media.model.dto.request.ProfileRequest;
 import ra.social_media.model.dto.response.ApiDataResponse;
+import ra.social_media.model.dto.response.ProfileCardResponse;
 import ra.social_media.model.dto.response.ProfileResponse;
+import ra.social_media.model.dto.response.ProfileSnapshot;
 import ra.social_media.service.ProfileService;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("api/v1/profile")
 public class ProfileController {
@@ -19,8 +25,27 @@ public class ProfileController {
 
 
     @GetMapping
-    public ResponseEntity<ApiDataResponse<ProfileResponse>> getProfile() {
-        return new ResponseEntity<>(new ApiDataResponse<>(true, profileService.getProfile(), "success", HttpStatus.OK), HttpStatus.OK);
+    public ResponseEntity<ApiDataResponse<ProfileResponse>> getProfile(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        ProfileSnapshot snapshot = profileService.getProfileSnapshot();
+        if (matches(ifNoneMatch, snapshot.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(new ApiDataResponse<>(true, snapshot.getProfile(), "success", HttpStatus.OK));
+    }
+
+
+    // Thẻ profile (tên hiển thị, avatar) của nhiều user trong một request: /cards?ids=1,2,3
+    @GetMapping("/cards")
+    public ResponseEntity<ApiDataResponse<List<ProfileCardResponse>>> getProfileCards(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(new ApiDataResponse<>(true, profileService.getProfileCards(ids), "success", HttpStatus.OK));
     }
 
 
@@ -32,4 +57,18 @@ public class ProfileController {
         return ResponseEntity.ok(new ApiDataResponse<>(true, updatedProfile, "success", HttpStatus.OK));
     }
 
+    // If-None-Match có thể chứa nhiều ETag cách nhau bởi dấu phẩy hoặc "*"
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 }
@@ -0,0 +1,50 @@
+package ra.social_media.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ra.social_media.model.dto.response.ApiDataResponse;
+import ra.social_media.model.dto.response.CursorPageResponse;
+import ra.social_media.model.dto.response.PostResponse;
+import ra.social_media.model.dto.response.ProfileCardResponse;
+import ra.social_media.model.dto.response.TagResponse;
+import ra.social_media.service.SearchService;
+
+@RestController
+@RequestMapping("api/v1/search")
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    @GetMapping("/posts")
+    public ResponseEntity<ApiDataResponse<CursorPageResponse<PostResponse>>> searchPosts(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(new ApiDataResponse<>(true, searchService.searchPosts(q, cursor, limit), "success", HttpStatus.OK));
+    }
+
+    @GetMapping("/users")
+    public ResponseEntity<ApiDataResponse<CursorPageResponse<ProfileCardResponse>>> searchUsers(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(new ApiDataResponse<>(true, searchService.searchUsers(q, cursor, limit), "success", HttpStatus.OK));
+    }
+
+    @GetMapping("/tags")
+    public ResponseEntity<ApiDataResponse<CursorPageResponse<TagResponse>>> searchTags(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(new ApiDataResponse<>(true, searchService.searchTags(q, cursor, limit), "success", HttpStatus.OK));
+    }
+}
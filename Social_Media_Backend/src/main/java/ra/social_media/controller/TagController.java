@@ -0,0 +1,30 @@
+package ra.social_media.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ra.social_media.model.dto.response.ApiDataResponse;
+import ra.social_media.model.dto.response.TrendingTagResponse;
+import ra.social_media.service.TrendingService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("api/v1/tags")
+public class TagController {
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @GetMapping("/trending")
+    public ResponseEntity<ApiDataResponse<List<TrendingTagResponse>>> getTrending(
+            @RequestParam(defaultValue = "1h") String window,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(new ApiDataResponse<>(true, trendingService.trending(window, limit), "success", HttpStatus.OK));
+    }
+}
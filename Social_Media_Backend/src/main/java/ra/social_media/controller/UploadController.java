@@ -0,0 +1,50 @@
+package ra.social_media.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ra.social_media.model.dto.request.UploadInitRequest;
+import ra.social_media.model.dto.response.ApiDataResponse;
+import ra.social_media.model.dto.response.MediaResponse;
+import ra.social_media.model.dto.response.UploadSessionResponse;
+import ra.social_media.service.UploadService;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("api/v1/uploads")
+public class UploadController {
+
+    @Autowired
+    private UploadService uploadService;
+
+    @PostMapping
+    public ResponseEntity<ApiDataResponse<UploadSessionResponse>> init(@Valid @RequestBody UploadInitRequest request) {
+        return new ResponseEntity<>(new ApiDataResponse<>(true, uploadService.init(request), "success", HttpStatus.CREATED), HttpStatus.CREATED);
+    }
+
+    // Body là bytes thô của chunk (application/octet-stream), đọc thẳng từ stream của request
+    @PutMapping("/{uploadId}/chunks/{index}")
+    public ResponseEntity<ApiDataResponse<UploadSessionResponse>> uploadChunk(
+            @PathVariable String uploadId,
+            @PathVariable int index,
+            @RequestHeader(value = "X-Chunk-Sha256", required = false) String sha256,
+            HttpServletRequest request
+    ) throws IOException {
+        UploadSessionResponse response = uploadService.writeChunk(uploadId, index, sha256, request.getInputStream());
+        return new ResponseEntity<>(new ApiDataResponse<>(true, response, "success", HttpStatus.OK), HttpStatus.OK);
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<ApiDataResponse<UploadSessionResponse>> status(@PathVariable String uploadId) {
+        return new ResponseEntity<>(new ApiDataResponse<>(true, uploadService.status(uploadId), "success", HttpStatus.OK), HttpStatus.OK);
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<ApiDataResponse<MediaResponse>> complete(@PathVariable String uploadId) {
+        return new ResponseEntity<>(new ApiDataResponse<>(true, uploadService.complete(uploadId), "success", HttpStatus.CREATED), HttpStatus.CREATED);
+    }
+}
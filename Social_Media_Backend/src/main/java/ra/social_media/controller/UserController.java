@@ -0,0 +1,50 @@
+package ra.social_media.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ra.social_media.model.dto.response.ApiDataResponse;
+import ra.social_media.model.dto.response.CursorPageResponse;
+import ra.social_media.model.dto.response.PostResponse;
+import ra.social_media.model.dto.response.ProfileCardResponse;
+import ra.social_media.service.FollowService;
+import ra.social_media.service.PostService;
+
+@RestController
+@RequestMapping("api/v1/users")
+public class UserController {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private FollowService followService;
+
+    @GetMapping("/{userId}/posts")
+    public ResponseEntity<ApiDataResponse<CursorPageResponse<PostResponse>>> getUserPosts(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(new ApiDataResponse<>(true, postService.getUserPosts(userId, cursor, limit), "success", HttpStatus.OK));
+    }
+
+    @GetMapping("/{userId}/followers")
+    public ResponseEntity<ApiDataResponse<CursorPageResponse<ProfileCardResponse>>> getFollowers(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(new ApiDataResponse<>(true, followService.getFollowers(userId, cursor, limit), "success", HttpStatus.OK));
+    }
+
+    @GetMapping("/{userId}/following")
+    public ResponseEntity<ApiDataResponse<CursorPageResponse<ProfileCardResponse>>> getFollowing(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(new ApiDataResponse<>(true, followService.getFollowing(userId, cursor, limit), "success", HttpStatus.OK));
+    }
+}
@@ -0,0 +1,9 @@
+package ra.social_media.exception;
+
+public class HttpServiceUnavailable extends RuntimeException
+{
+    public HttpServiceUnavailable(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package ra.social_media.exception;
+
+public class HttpTooManyRequests extends RuntimeException
+{
+    public HttpTooManyRequests(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package ra.social_media.model.dto.projection;
+
+import java.time.LocalDateTime;
+
+public interface ExploreCandidateView {
+    Long getId();
+
+    Long getAuthorId();
+
+    int getLikeCount();
+
+    int getCommentCount();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,8 @@
+package ra.social_media.model.dto.projection;
+
+// Số follower đã flush của một profile, phần chưa flush cộng thêm qua CounterService
+public interface FollowerCountView {
+    Long getId();
+
+    Integer getFollowersCount();
+}
@@ -0,0 +1,10 @@
+package ra.social_media.model.dto.projection;
+
+import java.time.LocalDateTime;
+
+// Một dòng của danh sách phân trang keyset: id phần tử cần lấy và createdAt dùng làm con trỏ
+public interface KeysetView {
+    Long getId();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,7 @@
+package ra.social_media.model.dto.projection;
+
+public interface PostSearchView {
+    Long getId();
+
+    String getCaption();
+}
@@ -0,0 +1,9 @@
+package ra.social_media.model.dto.projection;
+
+import java.time.LocalDateTime;
+
+public interface PostTimelineView {
+    Long getId();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,11 @@
+package ra.social_media.model.dto.projection;
+
+public interface ProfileCardView {
+    Long getId();
+
+    String getDisplayName();
+
+    String getAvatarUrl();
+
+    boolean getIsPrivate();
+}
@@ -0,0 +1,7 @@
+package ra.social_media.model.dto.projection;
+
+public interface TagSearchView {
+    Long getId();
+
+    String getName();
+}
@@ -0,0 +1,17 @@
+package ra.social_media.model.dto.projection;
+
+public interface UserAuthView {
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getFullName();
+
+    String getPasswordHash();
+
+    Boolean getStatus();
+
+    Integer getTokenVersion();
+}
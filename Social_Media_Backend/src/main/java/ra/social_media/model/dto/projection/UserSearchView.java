@@ -0,0 +1,15 @@
+package ra.social_media.model.dto.projection;
+
+public interface UserSearchView {
+    Long getId();
+
+    String getUsername();
+
+    String getFullName();
+
+    Boolean getStatus();
+
+    String getDisplayName();
+
+    String getBio();
+}
@@ -0,0 +1,22 @@
+package ra.social_media.model.dto.request;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ra.social_media.utils.PostVisibility;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class PostRequest {
+    @Size(max = 2200, message = "Caption must be at most 2200 characters")
+    private String caption;
+
+    @Size(max = 255, message = "Location must be at most 255 characters")
+    private String location;
+
+    private PostVisibility visibility;
+}
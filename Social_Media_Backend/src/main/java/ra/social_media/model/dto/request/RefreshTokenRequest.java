@@ -0,0 +1,14 @@
+package ra.social_media.model.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class RefreshTokenRequest {
+    @NotBlank(message = "Refresh token cannot be empty")
+    private String refreshToken;
+}
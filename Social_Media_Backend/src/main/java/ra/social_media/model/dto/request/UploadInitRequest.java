@@ -0,0 +1,29 @@
+package ra.social_media.model.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ra.social_media.utils.MediaType;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class UploadInitRequest {
+    @NotNull(message = "Post id cannot be empty")
+    private Long postId;
+
+    @NotNull(message = "Media type cannot be empty")
+    private MediaType mediaType;
+
+    @NotBlank(message = "Content type cannot be empty")
+    private String contentType;
+
+    @NotNull(message = "Total size cannot be empty")
+    @Positive(message = "Total size must be positive")
+    private Long totalSize;
+}
@@ -0,0 +1,16 @@
+package ra.social_media.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AvailabilityResponse {
+    // null nếu không kiểm tra trường tương ứng
+    private Boolean usernameAvailable;
+    private Boolean emailAvailable;
+}
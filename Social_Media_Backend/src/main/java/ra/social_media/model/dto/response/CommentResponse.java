@@ -0,0 +1,30 @@
+package ra.social_media.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class CommentResponse {
+    private Long id;
+    private Long postId;
+    private Long parentId;
+    private ProfileCardResponse author;
+    private String content;
+    private int likeCount;
+    private int replyCount;
+    private LocalDateTime createdAt;
+    // Bình luận đã xoá nhưng còn trả lời: giữ chỗ trong thread, không có author/content
+    private boolean deleted;
+    // Vài trả lời đầu tiên (cũ nhất trước), chỉ có ở danh sách bình luận của bài
+    private List<CommentResponse> replies;
+    // Truyền vào /comments/{id}/replies để tải tiếp; null khi đã hiện hết
+    private String repliesCursor;
+}
@@ -0,0 +1,18 @@
+package ra.social_media.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class CursorPageResponse<T> {
+    private List<T> items;
+    // null khi đã hết dữ liệu
+    private String nextCursor;
+}
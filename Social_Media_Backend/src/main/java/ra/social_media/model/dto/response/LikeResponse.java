@@ -0,0 +1,16 @@
+package ra.social_media.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class LikeResponse {
+    private Long postId;
+    private boolean liked;
+    private int likeCount;
+}
@@ -0,0 +1,24 @@
+package ra.social_media.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ra.social_media.utils.MediaType;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class MediaResponse {
+    private Long id;
+    private Long postId;
+    private MediaType mediaType;
+    private String url;
+    private String thumbnailUrl;
+    private String feedUrl;
+    private Integer width;
+    private Integer height;
+    private Long durationMs;
+    private int orderInPost;
+}
@@ -0,0 +1,27 @@
+package ra.social_media.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ra.social_media.utils.PostVisibility;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class PostResponse {
+    private Long id;
+    private ProfileCardResponse author;
+    private String caption;
+    private String location;
+    private PostVisibility visibility;
+    private int likeCount;
+    private int commentCount;
+    private boolean likedByMe;
+    private List<MediaResponse> media;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,17 @@
+package ra.social_media.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class ProfileCardResponse {
+    private Long userId;
+    private String displayName;
+    private String avatarUrl;
+    private boolean isPrivate;
+}
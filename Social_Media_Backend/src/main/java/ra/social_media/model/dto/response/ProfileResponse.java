@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import ra.social_media.utils.AvatarStatus;
 
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,6 +17,7 @@ public class ProfileResponse {
     private String website;
     private String location;
     private String avatarUrl;
+    private AvatarStatus avatarStatus;
 
     private boolean isPrivate = false;
 
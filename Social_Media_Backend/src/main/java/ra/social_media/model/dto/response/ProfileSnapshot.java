@@ -0,0 +1,14 @@
+package ra.social_media.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProfileSnapshot {
+    private ProfileResponse profile;
+    // Strong ETag (đã có dấu nháy kép) tính từ nội dung profile
+    private String etag;
+}
@@ -0,0 +1,18 @@
+package ra.social_media.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class TrendingTagResponse {
+    private String name;
+    // Số lần đã giảm dần theo tuổi, dùng để xếp hạng
+    private double score;
+    // Số bài gắn tag trong cửa sổ (ước lượng, có thể lớn hơn thực tế một chút)
+    private long count;
+}
@@ -0,0 +1,22 @@
+package ra.social_media.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class UploadSessionResponse {
+    private String uploadId;
+    private long totalSize;
+    private int chunkSize;
+    private int totalChunks;
+    private int receivedChunks;
+    // Các chunk còn thiếu, client chỉ cần gửi lại những chunk này khi resume
+    private List<Integer> missingChunks;
+}
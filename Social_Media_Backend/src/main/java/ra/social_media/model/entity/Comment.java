@@ -6,9 +6,13 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+        @Index(name = "idx_comments_post_parent_created", columnList = "post_id, parent_id, created_at, id"),
+        @Index(name = "idx_comments_parent_created", columnList = "parent_id, created_at, id")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
@@ -42,10 +46,11 @@ public class Comment {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
 
-    @Column(name = "like_count", nullable = false)
+    // Chỉ thay đổi qua CounterService (UPDATE x = x + ?), JPA không ghi đè khi save entity
+    @Column(name = "like_count", nullable = false, updatable = false)
     private int likeCount = 0;
 
-    @Column(name = "reply_count", nullable = false)
+    @Column(name = "reply_count", nullable = false, updatable = false)
     private int replyCount = 0;
 
     @Column(name = "created_at", nullable = false)
@@ -59,8 +64,9 @@ public class Comment {
 
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
-        updatedAt = LocalDateTime.now();
+        // Cắt về micro giây cho khớp DATETIME(6), createdAt được dùng làm con trỏ phân trang
+        createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        updatedAt = createdAt;
     }
 
     @PreUpdate
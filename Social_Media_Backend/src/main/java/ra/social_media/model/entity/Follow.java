@@ -5,9 +5,13 @@ import lombok.*;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "follows")
+@Table(name = "follows", indexes = {
+        @Index(name = "idx_follows_following_created", columnList = "following_id, created_at, follower_id"),
+        @Index(name = "idx_follows_follower_created", columnList = "follower_id, created_at, following_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,7 +36,8 @@ public class Follow {
 
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        // Cắt về micro giây cho khớp DATETIME(6), createdAt được dùng làm con trỏ phân trang
+        createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     @Data
@@ -29,6 +29,13 @@ public class Media {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String url;
 
+    // Các bản thu nhỏ cho lưới ảnh và feed, url giữ bản đầy đủ
+    @Column(name = "thumbnail_url", columnDefinition = "TEXT")
+    private String thumbnailUrl;
+
+    @Column(name = "feed_url", columnDefinition = "TEXT")
+    private String feedUrl;
+
     @Column(name = "media_type", nullable = false, length = 10)
     @Enumerated(EnumType.STRING)
     private MediaType mediaType;
@@ -37,6 +44,10 @@ public class Media {
 
     private Integer height;
 
+    // Chỉ có với VIDEO / REEL
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
     @Column(name = "order_in_post", nullable = false)
     private int orderInPost;
 
@@ -0,0 +1,46 @@
+package ra.social_media.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một object đã lưu trên MediaStorage, định danh bằng SHA-256 nội dung.
+ * refCount đếm số chỗ đang dùng URL này (avatar, media của bài viết...), về 0 thì mới được xoá khỏi storage.
+ */
+@Entity
+@Table(name = "media_objects", indexes = {
+        @Index(name = "idx_media_objects_url", columnList = "url")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class MediaObject {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, length = 512)
+    private String url;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
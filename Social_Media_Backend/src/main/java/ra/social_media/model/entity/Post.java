@@ -4,14 +4,20 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import ra.social_media.model.entity.listener.SearchEntityListener;
 import ra.social_media.utils.PostVisibility;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 import static ra.social_media.utils.PostVisibility.PUBLIC;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+        @Index(name = "idx_posts_author_created", columnList = "author_id, created_at, id"),
+        @Index(name = "idx_posts_visibility_created", columnList = "visibility, created_at")
+})
+@EntityListeners(SearchEntityListener.class)
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
@@ -24,7 +30,7 @@ public class Post {
     @Column(name = "author_id", nullable = false)
     private Long authorId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", insertable = false, updatable = false)
     private User author;
 
@@ -37,10 +43,11 @@ public class Post {
     @Enumerated(EnumType.STRING)
     private PostVisibility visibility = PUBLIC;
 
-    @Column(name = "like_count", nullable = false)
+    // Chỉ thay đổi qua CounterService (UPDATE x = x + ?), JPA không ghi đè khi save entity
+    @Column(name = "like_count", nullable = false, updatable = false)
     private int likeCount = 0;
 
-    @Column(name = "comment_count", nullable = false)
+    @Column(name = "comment_count", nullable = false, updatable = false)
     private int commentCount = 0;
 
     @Column(name = "created_at", nullable = false)
@@ -51,8 +58,9 @@ public class Post {
 
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
-        updatedAt = LocalDateTime.now();
+        // Cắt về micro giây cho khớp DATETIME(6), createdAt được dùng làm con trỏ phân trang
+        createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        updatedAt = createdAt;
     }
 
     @PreUpdate
@@ -2,12 +2,14 @@ package ra.social_media.model.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import ra.social_media.model.entity.listener.PostTagEntityListener;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "post_tags")
+@EntityListeners(PostTagEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
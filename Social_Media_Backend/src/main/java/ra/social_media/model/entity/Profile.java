@@ -5,9 +5,12 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import ra.social_media.model.entity.listener.SearchEntityListener;
+import ra.social_media.utils.AvatarStatus;
 
 @Entity
 @Table(name = "profiles")
+@EntityListeners(SearchEntityListener.class)
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
@@ -27,15 +30,25 @@ public class Profile {
     private String location;
     private String avatarUrl;
 
+    // Trạng thái upload avatar bất đồng bộ, null được coi như READY (dữ liệu cũ)
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private AvatarStatus avatarStatus;
+
+    // Định danh lần upload đang chờ, chỉ lần upload mới nhất được ghi avatarUrl
+    @Column(length = 36)
+    private String avatarUploadToken;
+
     @Column(nullable = false)
     private boolean isPrivate = false;
 
-    @Column(nullable = false)
+    // Chỉ thay đổi qua CounterService (UPDATE x = x + ?), JPA không ghi đè khi save entity
+    @Column(nullable = false, updatable = false)
     private int followersCount = 0;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private int followingCount = 0;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private int postsCount = 0;
 }
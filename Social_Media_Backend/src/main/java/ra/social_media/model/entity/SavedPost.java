@@ -5,9 +5,12 @@ import lombok.*;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "saved_posts")
+@Table(name = "saved_posts", indexes = {
+        @Index(name = "idx_saved_posts_user_created", columnList = "user_id, created_at, post_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,7 +35,8 @@ public class SavedPost {
 
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        // Cắt về micro giây cho khớp DATETIME(6), createdAt được dùng làm con trỏ phân trang
+        createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     @Data
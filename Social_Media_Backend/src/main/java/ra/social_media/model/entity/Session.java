@@ -11,7 +11,9 @@ import java.time.LocalDateTime;
 import static ra.social_media.utils.SessionStatus.ACTIVE;
 
 @Entity
-@Table(name = "sessions")
+@Table(name = "sessions", indexes = {
+        @Index(name = "idx_sessions_status_expires_at", columnList = "status, expires_at")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
@@ -4,11 +4,13 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import ra.social_media.model.entity.listener.SearchEntityListener;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "tags")
+@EntityListeners(SearchEntityListener.class)
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
@@ -21,7 +23,8 @@ public class Tag {
     @Column(nullable = false, unique = true, length = 100)
     private String name; // Hashtag name without #
 
-    @Column(name = "post_count", nullable = false)
+    // Chỉ thay đổi qua CounterService (UPDATE x = x + ?), JPA không ghi đè khi save entity
+    @Column(name = "post_count", nullable = false, updatable = false)
     private int postCount = 0;
 
     @Column(name = "created_at", nullable = false)
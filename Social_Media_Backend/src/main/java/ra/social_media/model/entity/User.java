@@ -5,11 +5,14 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import ra.social_media.model.entity.listener.SearchEntityListener;
+import ra.social_media.model.entity.listener.UserEntityListener;
 
 import java.time.Instant;
 
 @Entity
 @Table (name = "users")
+@EntityListeners({UserEntityListener.class, SearchEntityListener.class})
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
@@ -38,4 +41,15 @@ public class User {
 
     private Instant lastSeenAt;
 
+    // Tăng khi đổi mật khẩu / trạng thái hoặc phát hiện refresh token bị dùng lại: access token mang version cũ hết hiệu lực
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
+    // passwordHash / status lúc nạp entity, để UserEntityListener biết thông tin đăng nhập có đổi hay không
+    @Transient
+    private String loadedPasswordHash;
+
+    @Transient
+    private Boolean loadedStatus;
+
 }
@@ -0,0 +1,32 @@
+package ra.social_media.model.entity.listener;
+
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ra.social_media.model.entity.PostTag;
+import ra.social_media.service.TrendingService;
+
+@Component
+public class PostTagEntityListener {
+
+    @Autowired
+    private TrendingService trendingService;
+
+    // Chỉ đếm sau khi commit, transaction rollback thì tag không được tính là thịnh hành
+    @PostPersist
+    public void onPostTagged(PostTag postTag) {
+        String tag = postTag.getTag().getName();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    trendingService.record(tag);
+                }
+            });
+        } else {
+            trendingService.record(tag);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ra.social_media.model.entity.listener;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ra.social_media.service.impl.SearchIndexer;
+
+// Gắn vào Post, Profile, User, Tag: đưa thay đổi sang chỉ mục tìm kiếm sau khi commit
+@Component
+public class SearchEntityListener {
+
+    @Autowired
+    private SearchIndexer searchIndexer;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        schedule(searchIndexer.prepare(entity, false));
+    }
+
+    @PostRemove
+    public void onRemoved(Object entity) {
+        schedule(searchIndexer.prepare(entity, true));
+    }
+
+    private void schedule(Runnable task) {
+        if (task == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ra.social_media.model.entity.listener;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ra.social_media.model.entity.User;
+import ra.social_media.security.principal.PrincipalCache;
+
+import java.util.Objects;
+
+@Component
+public class UserEntityListener {
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @PostLoad
+    @PostPersist
+    public void onUserLoaded(User user) {
+        user.setLoadedPasswordHash(user.getPasswordHash());
+        user.setLoadedStatus(user.getStatus());
+    }
+
+    // Đổi mật khẩu hoặc trạng thái -> thu hồi mọi access token đã phát hành
+    @PreUpdate
+    public void onUserUpdating(User user) {
+        if (!Objects.equals(user.getPasswordHash(), user.getLoadedPasswordHash())
+                || !Objects.equals(user.getStatus(), user.getLoadedStatus())) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
+        }
+    }
+
+    // status / passwordHash thay đổi -> principal đã cache không còn đúng. Xoá sau commit: xoá sớm hơn thì
+    // một lần login đồng thời có thể nạp lại bản ghi chưa commit (bản cũ) vào cache tới hết TTL
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        onUserLoaded(user);
+        Long userId = user.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principalCache.evictUser(userId);
+                }
+            });
+        } else {
+            principalCache.evictUser(userId);
+        }
+    }
+}
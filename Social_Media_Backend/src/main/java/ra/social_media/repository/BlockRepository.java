@@ -0,0 +1,18 @@
+package ra.social_media.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ra.social_media.model.entity.Block;
+
+import java.util.List;
+
+@Repository
+public interface BlockRepository extends JpaRepository<Block, Block.BlockId> {
+    @Query("select b.blocked.id from Block b where b.blocker.id = :userId")
+    List<Long> findBlockedIds(@Param("userId") Long userId);
+
+    @Query("select b.blocker.id from Block b where b.blocked.id = :userId")
+    List<Long> findBlockerIds(@Param("userId") Long userId);
+}
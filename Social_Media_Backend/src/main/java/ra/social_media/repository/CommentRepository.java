@@ -0,0 +1,48 @@
+package ra.social_media.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ra.social_media.model.entity.Comment;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CommentRepository extends JpaRepository<Comment, Long> {
+    // Bình luận gốc (không phải trả lời) của bài, cũ hơn con trỏ; đi theo index (post_id, parent_id, created_at, id).
+    // Bình luận đã xoá vẫn trả về nếu còn trả lời để giữ chỗ cho thread
+    @Query("select c from Comment c " +
+            "where c.postId = :postId and c.parentId is null " +
+            "and (c.deleted = false or exists (select 1 from Comment r where r.parentId = c.id and r.deleted = false)) " +
+            "and (c.createdAt < :beforeCreatedAt or (c.createdAt = :beforeCreatedAt and c.id < :beforeId)) " +
+            "order by c.createdAt desc, c.id desc")
+    List<Comment> findTopLevelPage(@Param("postId") Long postId,
+                                   @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                   @Param("beforeId") Long beforeId,
+                                   Pageable pageable);
+
+    // perParent trả lời đầu tiên (cũ nhất trước) của mỗi bình luận cha, một câu query cho cả trang
+    @Query(value = "select id, post_id, user_id, parent_id, content, like_count, reply_count, created_at, updated_at, deleted " +
+            "from (select c.*, row_number() over (partition by c.parent_id order by c.created_at, c.id) as rn " +
+            "      from comments c " +
+            "      where c.parent_id in (:parentIds) " +
+            "      and (c.deleted = false or exists (select 1 from comments r where r.parent_id = c.id and r.deleted = false))) ranked " +
+            "where rn <= :perParent " +
+            "order by parent_id, created_at, id", nativeQuery = true)
+    List<Comment> findFirstReplies(@Param("parentIds") Collection<Long> parentIds, @Param("perParent") int perParent);
+
+    // Trả lời của một bình luận, mới hơn con trỏ (cũ nhất trước)
+    @Query("select c from Comment c " +
+            "where c.parentId = :parentId " +
+            "and (c.deleted = false or exists (select 1 from Comment r where r.parentId = c.id and r.deleted = false)) " +
+            "and (c.createdAt > :afterCreatedAt or (c.createdAt = :afterCreatedAt and c.id > :afterId)) " +
+            "order by c.createdAt asc, c.id asc")
+    List<Comment> findRepliesPage(@Param("parentId") Long parentId,
+                                  @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                  @Param("afterId") Long afterId,
+                                  Pageable pageable);
+}
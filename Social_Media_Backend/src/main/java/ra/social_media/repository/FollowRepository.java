@@ -0,0 +1,49 @@
+package ra.social_media.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ra.social_media.model.dto.projection.KeysetView;
+import ra.social_media.model.entity.Follow;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface FollowRepository extends JpaRepository<Follow, Follow.FollowId> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select f.follower.id from Follow f where f.following.id = :userId")
+    Stream<Long> streamFollowerIds(@Param("userId") Long userId);
+
+    @Query("select f.following.id from Follow f where f.follower.id = :userId")
+    List<Long> findFollowingIds(@Param("userId") Long userId);
+
+    @Query("select count(f) > 0 from Follow f where f.follower.id = :followerId and f.following.id = :followingId")
+    boolean isFollowing(@Param("followerId") Long followerId, @Param("followingId") Long followingId);
+
+    // Người theo dõi userId, mới nhất trước; id trong kết quả là id của follower
+    @Query("select f.follower.id as id, f.createdAt as createdAt from Follow f " +
+            "where f.following.id = :userId " +
+            "and (f.createdAt < :beforeCreatedAt or (f.createdAt = :beforeCreatedAt and f.follower.id < :beforeId)) " +
+            "order by f.createdAt desc, f.follower.id desc")
+    List<KeysetView> findFollowersPage(@Param("userId") Long userId,
+                                       @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                       @Param("beforeId") Long beforeId,
+                                       Pageable pageable);
+
+    // Những người userId đang theo dõi, mới nhất trước; id trong kết quả là id của người được theo dõi
+    @Query("select f.following.id as id, f.createdAt as createdAt from Follow f " +
+            "where f.follower.id = :userId " +
+            "and (f.createdAt < :beforeCreatedAt or (f.createdAt = :beforeCreatedAt and f.following.id < :beforeId)) " +
+            "order by f.createdAt desc, f.following.id desc")
+    List<KeysetView> findFollowingPage(@Param("userId") Long userId,
+                                       @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                       @Param("beforeId") Long beforeId,
+                                       Pageable pageable);
+}
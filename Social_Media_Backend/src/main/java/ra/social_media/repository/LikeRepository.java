@@ -0,0 +1,39 @@
+package ra.social_media.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ra.social_media.model.dto.projection.PostLikerView;
+import ra.social_media.model.entity.Like;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface LikeRepository extends JpaRepository<Like, Like.LikeId> {
+    // Trả về 1 nếu vừa thêm, 0 nếu đã like từ trước; không cần đọc trước khi ghi
+    @Transactional
+    @Modifying
+    @Query(value = "insert ignore into likes (user_id, post_id, created_at) values (:userId, :postId, :createdAt)", nativeQuery = true)
+    int insertIgnore(@Param("userId") Long userId, @Param("postId") Long postId, @Param("createdAt") LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Like l where l.user.id = :userId and l.post.id = :postId")
+    int deleteByUserIdAndPostId(@Param("userId") Long userId, @Param("postId") Long postId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select l.post.id as postId, l.user.id as userId from Like l where l.post.id in :postIds")
+    Stream<PostLikerView> streamLikersByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+    @Query("select l.post.id from Like l where l.user.id = :userId and l.post.id in :postIds")
+    List<Long> findLikedPostIds(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
+}
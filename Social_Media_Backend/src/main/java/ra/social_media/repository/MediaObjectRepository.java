@@ -0,0 +1,45 @@
+package ra.social_media.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ra.social_media.model.entity.MediaObject;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface MediaObjectRepository extends JpaRepository<MediaObject, String> {
+    Optional<MediaObject> findFirstByUrl(String url);
+
+    @Query("select m.url from MediaObject m where m.contentHash = :hash")
+    Optional<String> findUrlByContentHash(@Param("hash") String hash);
+
+    // Tạo object với refCount 1, hoặc tăng refCount nếu hash đã có (giữ nguyên url của bản ghi đang có)
+    @Transactional
+    @Modifying
+    @Query(value = "insert into media_objects (content_hash, url, content_type, size_bytes, ref_count, created_at) " +
+            "values (:hash, :url, :contentType, :sizeBytes, 1, :createdAt) " +
+            "on duplicate key update ref_count = ref_count + 1", nativeQuery = true)
+    int insertOrReference(@Param("hash") String hash, @Param("url") String url, @Param("contentType") String contentType,
+                          @Param("sizeBytes") long sizeBytes, @Param("createdAt") LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("update MediaObject m set m.refCount = m.refCount + 1 where m.contentHash = :hash")
+    int incrementRefCount(@Param("hash") String hash);
+
+    @Transactional
+    @Modifying
+    @Query("update MediaObject m set m.refCount = m.refCount - 1 where m.contentHash = :hash and m.refCount > 0")
+    int decrementRefCount(@Param("hash") String hash);
+
+    // Chỉ xoá khi không còn ai tham chiếu, tránh tranh chấp với một lần acquire vừa tăng lại refCount
+    @Transactional
+    @Modifying
+    @Query("delete from MediaObject m where m.contentHash = :hash and m.refCount = 0")
+    int deleteUnreferenced(@Param("hash") String hash);
+}
@@ -0,0 +1,17 @@
+package ra.social_media.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ra.social_media.model.entity.Media;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MediaRepository extends JpaRepository<Media, Long> {
+    List<Media> findByPostIdOrderByOrderInPost(Long postId);
+
+    int countByPostId(Long postId);
+
+    List<Media> findByPostIdInOrderByPostIdAscOrderInPostAsc(Collection<Long> postIds);
+}
@@ -0,0 +1,70 @@
+package ra.social_media.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ra.social_media.model.dto.projection.ExploreCandidateView;
+import ra.social_media.model.dto.projection.PostSearchView;
+import ra.social_media.model.dto.projection.PostTimelineView;
+import ra.social_media.model.entity.Post;
+import ra.social_media.utils.PostVisibility;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface PostRepository extends JpaRepository<Post, Long> {
+    // Home feed: mọi bài của chính user + bài theo visibility của những người đang follow, cũ hơn con trỏ
+    @Query("select p.id as id, p.createdAt as createdAt from Post p " +
+            "where (p.authorId = :userId or (p.authorId in :authorIds and p.visibility = :visibility)) " +
+            "and (p.createdAt < :beforeCreatedAt or (p.createdAt = :beforeCreatedAt and p.id < :beforeId)) " +
+            "order by p.createdAt desc, p.id desc")
+    List<PostTimelineView> findHomeTimeline(@Param("userId") Long userId,
+                                            @Param("authorIds") Collection<Long> authorIds,
+                                            @Param("visibility") PostVisibility visibility,
+                                            @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                            @Param("beforeId") Long beforeId,
+                                            Pageable pageable);
+
+    @Query("select p.id as id, p.createdAt as createdAt from Post p " +
+            "where p.authorId = :authorId and p.visibility = :visibility " +
+            "and (p.createdAt < :beforeCreatedAt or (p.createdAt = :beforeCreatedAt and p.id < :beforeId)) " +
+            "order by p.createdAt desc, p.id desc")
+    List<PostTimelineView> findAuthorTimeline(@Param("authorId") Long authorId,
+                                              @Param("visibility") PostVisibility visibility,
+                                              @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                              @Param("beforeId") Long beforeId,
+                                              Pageable pageable);
+
+    // Trang cá nhân: bài của một tác giả trong các visibility người xem được phép thấy
+    @Query("select p.id as id, p.createdAt as createdAt from Post p " +
+            "where p.authorId = :authorId and p.visibility in :visibilities " +
+            "and (p.createdAt < :beforeCreatedAt or (p.createdAt = :beforeCreatedAt and p.id < :beforeId)) " +
+            "order by p.createdAt desc, p.id desc")
+    List<PostTimelineView> findAuthorPosts(@Param("authorId") Long authorId,
+                                           @Param("visibilities") Collection<PostVisibility> visibilities,
+                                           @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                           @Param("beforeId") Long beforeId,
+                                           Pageable pageable);
+
+    // Ứng viên Explore: bài theo visibility tạo từ since trở lại đây, bỏ tác giả để tài khoản riêng tư
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select p.id as id, p.authorId as authorId, p.likeCount as likeCount, p.commentCount as commentCount, " +
+            "p.createdAt as createdAt from Post p, Profile pr " +
+            "where pr.id = p.authorId and pr.isPrivate = false " +
+            "and p.visibility = :visibility and p.createdAt >= :since")
+    Stream<ExploreCandidateView> streamExploreCandidates(@Param("visibility") PostVisibility visibility,
+                                                        @Param("since") LocalDateTime since);
+
+    // Dựng lại chỉ mục tìm kiếm
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select p.id as id, p.caption as caption from Post p where p.visibility = :visibility")
+    Stream<PostSearchView> streamSearchDocuments(@Param("visibility") PostVisibility visibility);
+}
@@ -0,0 +1,9 @@
+package ra.social_media.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ra.social_media.model.entity.PostTag;
+
+@Repository
+public interface PostTagRepository extends JpaRepository<PostTag, PostTag.PostTagId> {
+}
@@ -1,14 +1,68 @@
 package ra.social_media.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ra.social_media.model.dto.projection.FollowerCountView;
+import ra.social_media.model.dto.projection.ProfileCardView;
 import ra.social_media.model.entity.Profile;
 import ra.social_media.model.entity.User;
+import ra.social_media.utils.AvatarStatus;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 @Repository
 public interface ProfileRepository extends JpaRepository<Profile, Long> {
     Optional<Profile> findByDisplayName(String displayName);
 
     Optional<Profile> findByUser_Username(String userUsername);
+
+    // Khoá dòng profile khi cập nhật để không ghi đè kết quả upload avatar đang hoàn thành song song
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Profile p where p.id = :id")
+    Optional<Profile> findByIdForUpdate(@Param("id") Long id);
+
+    // Chỉ lấy các cột của profiles, không join sang users qua Profile.user
+    @Query("select p.id as id, p.displayName as displayName, p.avatarUrl as avatarUrl, p.isPrivate as isPrivate " +
+            "from Profile p where p.id in :ids")
+    List<ProfileCardView> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.followersCount from Profile p where p.id = :id")
+    Integer findFollowersCountById(@Param("id") Long id);
+
+    @Query("select p.id as id, p.followersCount as followersCount from Profile p where p.id in :ids")
+    List<FollowerCountView> findFollowersCounts(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.avatarUrl from Profile p where p.id = :id")
+    String findAvatarUrlById(@Param("id") Long id);
+
+    // Chỉ ghi nếu token vẫn là lần upload mới nhất, upload cũ hoàn thành muộn sẽ không đè lên
+    @Transactional
+    @Modifying
+    @Query("update Profile p set p.avatarUrl = :avatarUrl, p.avatarStatus = :status, p.avatarUploadToken = null " +
+            "where p.id = :id and p.avatarUploadToken = :token")
+    int completeAvatarUpload(@Param("id") Long id,
+                             @Param("token") String token,
+                             @Param("avatarUrl") String avatarUrl,
+                             @Param("status") AvatarStatus status);
+
+    // Hàng đợi upload nằm trong bộ nhớ: sau khi khởi động lại, các lần upload còn chờ không còn ai xử lý
+    @Transactional
+    @Modifying
+    @Query("update Profile p set p.avatarStatus = :status, p.avatarUploadToken = null where p.avatarStatus = :pending")
+    int failAbandonedAvatarUploads(@Param("pending") AvatarStatus pending, @Param("status") AvatarStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("update Profile p set p.avatarStatus = :status, p.avatarUploadToken = null " +
+            "where p.id = :id and p.avatarUploadToken = :token")
+    int failAvatarUpload(@Param("id") Long id,
+                         @Param("token") String token,
+                         @Param("status") AvatarStatus status);
 }
@@ -0,0 +1,25 @@
+package ra.social_media.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ra.social_media.model.dto.projection.KeysetView;
+import ra.social_media.model.entity.SavedPost;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SavedPostRepository extends JpaRepository<SavedPost, SavedPost.SavedPostId> {
+    // Id bài đã lưu, sắp theo thời điểm lưu (không phải thời điểm đăng bài)
+    @Query("select s.post.id as id, s.createdAt as createdAt from SavedPost s " +
+            "where s.user.id = :userId " +
+            "and (s.createdAt < :beforeCreatedAt or (s.createdAt = :beforeCreatedAt and s.post.id < :beforeId)) " +
+            "order by s.createdAt desc, s.post.id desc")
+    List<KeysetView> findSavedPage(@Param("userId") Long userId,
+                                   @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                   @Param("beforeId") Long beforeId,
+                                   Pageable pageable);
+}
@@ -0,0 +1,38 @@
+package ra.social_media.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ra.social_media.model.entity.Session;
+import ra.social_media.utils.SessionStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface SessionRepository extends JpaRepository<Session, Long> {
+    List<Session> findBySessionTokenIn(Collection<String> sessionTokens);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select s from Session s where s.status = :status and s.expiresAt > :now")
+    Stream<Session> streamByStatusAndExpiresAtAfter(@Param("status") SessionStatus status,
+                                                    @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update Session s set s.status = :status where s.sessionToken in :sessionTokens")
+    int updateStatusBySessionTokens(@Param("status") SessionStatus status,
+                                    @Param("sessionTokens") Collection<String> sessionTokens);
+
+    @Modifying
+    @Query("update Session s set s.status = :newStatus where s.status = :status and s.expiresAt <= :now")
+    int updateStatusWhereExpired(@Param("status") SessionStatus status,
+                                 @Param("newStatus") SessionStatus newStatus,
+                                 @Param("now") LocalDateTime now);
+}
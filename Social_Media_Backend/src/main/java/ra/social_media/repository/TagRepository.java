@@ -0,0 +1,33 @@
+package ra.social_media.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ra.social_media.model.dto.projection.TagSearchView;
+import ra.social_media.model.entity.Tag;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface TagRepository extends JpaRepository<Tag, Long> {
+    List<Tag> findByNameIn(Collection<String> names);
+
+    // Tạo tag nếu chưa có; hai bài cùng lúc dùng tag mới không đụng unique constraint
+    @Transactional
+    @Modifying
+    @Query(value = "insert ignore into tags (name, post_count, created_at) values (:name, 0, :createdAt)", nativeQuery = true)
+    int insertIgnore(@Param("name") String name, @Param("createdAt") LocalDateTime createdAt);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select t.id as id, t.name as name from Tag t")
+    Stream<TagSearchView> streamSearchDocuments();
+}
@@ -1,14 +1,69 @@
 package ra.social_media.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ra.social_media.model.dto.projection.UserAuthView;
+import ra.social_media.model.dto.projection.UserIdentityView;
+import ra.social_media.model.dto.projection.UserSearchView;
 import ra.social_media.model.entity.User;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
+
+    boolean existsByUsername(String username);
+
+    boolean existsByEmail(String email);
+
+    // Một query cho cả username lẫn email, ưu tiên bản ghi khớp username
+    @Query("select u.id as id, u.username as username, u.email as email, u.fullName as fullName, " +
+            "u.passwordHash as passwordHash, u.status as status, u.tokenVersion as tokenVersion from User u " +
+            "where u.username = :login or u.email = :login " +
+            "order by case when u.username = :login then 0 else 1 end")
+    List<UserAuthView> findAuthViewsByLogin(@Param("login") String login);
+
+    @Query("select u.id as id, u.username as username, u.email as email, u.fullName as fullName, " +
+            "u.passwordHash as passwordHash, u.status as status, u.tokenVersion as tokenVersion from User u " +
+            "where u.id = :id")
+    Optional<UserAuthView> findAuthViewById(@Param("id") Long id);
+
+    // Update thẳng, không qua entity listener: người gọi tự xoá principal khỏi cache
+    @Transactional
+    @Modifying
+    @Query("update User u set u.tokenVersion = u.tokenVersion + 1 where u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
+
+    // Rehash cùng một mật khẩu (đổi cost) nên không tăng tokenVersion
+    @Transactional
+    @Modifying
+    @Query("update User u set u.passwordHash = :passwordHash where u.id = :id")
+    int updatePasswordHash(@Param("id") Long id, @Param("passwordHash") String passwordHash);
+
+    // Stream toàn bộ bảng users (MySQL chỉ stream thật khi fetch size = Integer.MIN_VALUE)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select u.username as username, u.email as email from User u")
+    Stream<UserIdentityView> streamAllIdentities();
+
+    // Dựng lại chỉ mục tìm kiếm: user kèm tên hiển thị / bio của profile (profile.id = user.id)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select u.id as id, u.username as username, u.fullName as fullName, u.status as status, " +
+            "p.displayName as displayName, p.bio as bio from User u left join Profile p on p.id = u.id")
+    Stream<UserSearchView> streamSearchDocuments();
+
+    @Query("select u.id as id, u.username as username, u.fullName as fullName, u.status as status, " +
+            "p.displayName as displayName, p.bio as bio from User u left join Profile p on p.id = u.id where u.id = :id")
+    Optional<UserSearchView> findSearchDocumentById(@Param("id") Long id);
 }
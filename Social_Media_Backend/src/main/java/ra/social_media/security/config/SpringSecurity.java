@@ -12,12 +12,14 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import ra.social_media.security.jwt.JWTAuthFilter;
+import ra.social_media.security.ratelimit.AuthRateLimitFilter;
 
 @Configuration
 @EnableWebSecurity
@@ -27,6 +29,8 @@ public class SpringSecurity {
     private PasswordEncoder passwordEncoder;
     @Autowired
     private UserDetailsService userDetailsService;
+    @Autowired
+    private UserDetailsPasswordService userDetailsPasswordService;
 
     @Bean
     public AuthenticationEntryPoint authenticationEntryPoint(){
@@ -43,15 +47,20 @@ public class SpringSecurity {
         DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
         daoAuthenticationProvider.setUserDetailsService(userDetailsService);
         daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
+        daoAuthenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return daoAuthenticationProvider;
     }
 
     @Bean
-    public SecurityFilterChain configure(HttpSecurity http, JWTAuthFilter jwtAuthFilter) throws Exception {
+    public SecurityFilterChain configure(HttpSecurity http, JWTAuthFilter jwtAuthFilter,
+                                         AuthRateLimitFilter authRateLimitFilter) throws Exception {
         http.csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(authorizeRequests -> authorizeRequests
 
                         .requestMatchers("/api/reports/**").hasRole("ADMIN")
+                        // Số liệu nội bộ (cache, độ trễ, số request) chỉ dành cho admin; health vẫn mở cho load balancer
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/api/v1/auth/**").permitAll()
 
                         // Các endpoint khác yêu cầu xác thực
@@ -60,6 +69,7 @@ public class SpringSecurity {
                 )
                 .exceptionHandling(ex -> ex.authenticationEntryPoint(authenticationEntryPoint()))
                 .authenticationProvider(authenticationProvider())
+                .addFilterBefore(authRateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
         return http.build();
@@ -1,11 +1,13 @@
 package ra.social_media.security.jwt;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -25,6 +27,10 @@ public class JWTAuthFilter extends OncePerRequestFilter {
     private JWTProvider jwtProvider;
     @Autowired
     private UserDetailsService userDetailsService;
+    @Autowired
+    private SessionRevocationList sessionRevocationList;
+    @Value("${jwt_stateless:true}") // Dựng principal từ claims thay vì query DB mỗi request
+    private boolean statelessPrincipal;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -37,9 +43,29 @@ public class JWTAuthFilter extends OncePerRequestFilter {
             if (StringUtils.hasText(jwt)) {
 
 
-                if (jwtProvider.validateAccessToken(jwt)) {
-                    String username = jwtProvider.getUsernameFromToken(jwt);
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                Claims claims = jwtProvider.parseAccessToken(jwt);
+                if (claims != null) {
+                    String sessionId = claims.get("sid", String.class);
+                    if (sessionId != null && sessionRevocationList.isRevoked(sessionId)) {
+                        sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Phiên đăng nhập đã hết hạn hoặc bị thu hồi");
+                        return;
+                    }
+
+                    UserDetails userDetails;
+                    if (statelessPrincipal && claims.get("uid") != null) {
+                        userDetails = jwtProvider.getPrincipalFromClaims(claims);
+                        if (userDetails == null) {
+                            sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Token đã bị thu hồi");
+                            return;
+                        }
+                    } else {
+                        // Token cũ không mang claims của principal -> tra DB như trước
+                        userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+                        if (!userDetails.isEnabled()) {
+                            sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Tài khoản đã bị vô hiệu hoá");
+                            return;
+                        }
+                    }
 
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(userDetails, null,
@@ -2,13 +2,21 @@ package ra.social_media.security.jwt;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import ra.social_media.security.principal.UserPrincipal;
+import ra.social_media.utils.ExpiringCache;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JWTProvider {
@@ -22,8 +30,34 @@ public class JWTProvider {
     @Value("${jwt_refresh}") // Refresh token TTL (ms)
     private long jwtRefresh;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Value("${jwt_cache_size:10000}") // Số token đã verify được giữ trong cache
+    private int jwtCacheSize;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    // Key và parser được dựng một lần, JwtParser là immutable nên dùng chung giữa các thread
+    private SecretKey key;
+    private JwtParser parser;
+    private ExpiringCache<String, Claims> verifiedAccessTokens;
+
+    @PostConstruct
+    void init() {
+        key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(key).build();
+        verifiedAccessTokens = new ExpiringCache<>(jwtCacheSize, jwtExpire);
+    }
+
     private SecretKey getKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        return key;
     }
 
     // 🟢 Tạo Access Token
@@ -38,60 +72,116 @@ public class JWTProvider {
                 .compact();
     }
 
-    // 🟢 Tạo Refresh Token
-    public String generateRefreshToken(String username) {
+    // 🟢 Tạo Access Token mang sẵn thông tin principal (không cần query DB khi xác thực) và session phát hành
+    public String generateAccessToken(UserPrincipal principal, String sessionId) {
+        Date now = new Date();
+        return Jwts.builder()
+                .subject(principal.getUsername())
+                .claim("type", "access")
+                .claim("uid", principal.getId())
+                .claim("fullName", principal.getFullName())
+                .claim("email", principal.getEmail())
+                .claim("active", principal.getIsActive())
+                .claim("ver", principal.getTokenVersion())
+                .claim("sid", sessionId)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + jwtExpire))
+                .signWith(getKey(), Jwts.SIG.HS512)
+                .compact();
+    }
+
+    // 🟢 Tạo Refresh Token gắn với một session (sid), jti ngẫu nhiên để mỗi lần xoay vòng ra token khác nhau
+    public String generateRefreshToken(String username, String sessionId) {
         Date now = new Date();
         return Jwts.builder()
                 .subject(username)
+                .id(UUID.randomUUID().toString())
                 .claim("type", "refresh")
+                .claim("sid", sessionId)
                 .issuedAt(now)
                 .expiration(new Date(now.getTime() + jwtRefresh))
                 .signWith(getKey(), Jwts.SIG.HS512)
                 .compact();
     }
 
-    // 🧠 Validate Access Token
-    public boolean validateAccessToken(String token) {
+    // 🧠 Parse + verify Access Token một lần, trả về claims (null nếu không hợp lệ)
+    public Claims parseAccessToken(String token) {
+        String digest = digest(token);
+        Claims cached = verifiedAccessTokens.get(digest);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-
-            return "access".equals(claims.get("type"));
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (!"access".equals(claims.get("type"))) {
+                return null;
+            }
+            // Entry hết hạn cùng lúc với token nên cache không bao giờ trả về token đã hết hạn
+            Date expiration = claims.getExpiration();
+            verifiedAccessTokens.put(digest, claims,
+                    expiration != null ? expiration.getTime() : System.currentTimeMillis() + jwtExpire);
+            return claims;
         } catch (JwtException | IllegalArgumentException e) {
             System.out.println("Invalid access token: " + e.getMessage());
-            return false;
+            return null;
         }
     }
 
-    // 🧠 Validate Refresh Token
-    public boolean validateRefreshToken(String token) {
+    // 🧠 Validate Access Token
+    public boolean validateAccessToken(String token) {
+        return parseAccessToken(token) != null;
+    }
+
+    // 🧠 Parse + verify Refresh Token, null nếu không hợp lệ
+    public Claims parseRefreshToken(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Claims claims = parser.parseSignedClaims(token).getPayload();
 
-            return "refresh".equals(claims.get("type"));
+            return "refresh".equals(claims.get("type")) ? claims : null;
         } catch (JwtException | IllegalArgumentException e) {
             System.out.println("Invalid refresh token: " + e.getMessage());
-            return false;
+            return null;
         }
     }
 
+    // 🧠 Validate Refresh Token
+    public boolean validateRefreshToken(String token) {
+        return parseRefreshToken(token) != null;
+    }
+
     // 🔍 Lấy username từ token
     public String getUsernameFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token)
+        return parser.parseSignedClaims(token)
                 .getPayload()
                 .getSubject();
     }
 
+    // 👤 Dựng UserPrincipal trực tiếp từ claims, null nếu token đã bị thu hồi hoặc tài khoản không còn hoạt động
+    public UserPrincipal getPrincipalFromClaims(Claims claims) {
+        if (!(claims.get("uid") instanceof Number uid) || !(claims.get("ver") instanceof Number ver)) {
+            return null;
+        }
+        if (!Boolean.TRUE.equals(claims.get("active"))) {
+            return null;
+        }
+        if (!tokenVersionRegistry.isCurrent(uid.longValue(), ver.intValue())) {
+            return null;
+        }
+        return UserPrincipal.builder()
+                .id(uid.longValue())
+                .username(claims.getSubject())
+                .fullName(claims.get("fullName", String.class))
+                .email(claims.get("email", String.class))
+                .isActive(true)
+                .tokenVersion(ver.intValue())
+                .build();
+    }
+
+    private String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
     // 🧩 Lấy token từ request header
     public String resolveToken(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
@@ -100,13 +190,4 @@ public class JWTProvider {
         }
         return null;
     }
-
-    // 🔄 Refresh Access Token nếu Refresh Token hợp lệ
-    public String refreshAccessToken(String refreshToken) {
-        if (validateRefreshToken(refreshToken)) {
-            String username = getUsernameFromToken(refreshToken);
-            return generateAccessToken(username);
-        }
-        return null;
-    }
 }
\ No newline at end of file
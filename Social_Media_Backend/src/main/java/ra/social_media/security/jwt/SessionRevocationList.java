@@ -0,0 +1,33 @@
+package ra.social_media.security.jwt;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tập các session (sid) vừa bị thu hồi/hết hạn. Access token của session đó vẫn còn hạn tối đa jwt_expire,
+ * nên mỗi sid chỉ cần giữ trong khoảng thời gian ấy. JWTAuthFilter tra cứu O(1).
+ */
+@Component
+public class SessionRevocationList {
+
+    private final ConcurrentHashMap<String, Long> revokedUntil = new ConcurrentHashMap<>();
+
+    @Value("${jwt_expire}")
+    private long accessTokenTtlMillis;
+
+    public void revoke(String sessionId) {
+        revokedUntil.put(sessionId, System.currentTimeMillis() + accessTokenTtlMillis);
+    }
+
+    public boolean isRevoked(String sessionId) {
+        Long until = revokedUntil.get(sessionId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedUntil.values().removeIf(until -> until <= now);
+    }
+}
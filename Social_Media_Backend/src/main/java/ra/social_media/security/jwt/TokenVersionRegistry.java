@@ -0,0 +1,51 @@
+package ra.social_media.security.jwt;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ra.social_media.repository.UserRepository;
+import ra.social_media.security.principal.PrincipalCache;
+import ra.social_media.security.principal.UserPrincipal;
+import ra.social_media.security.principal.UserPrincipalService;
+
+/**
+ * "Token version" của từng user, lưu ở cột users.token_version và đọc qua PrincipalCache.
+ * Access token mang claim "ver"; khi version của user tăng thì mọi token phát hành trước đó bị coi là đã thu hồi,
+ * kể cả sau khi khởi động lại hay trên instance khác.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    @Autowired
+    private UserPrincipalService userPrincipalService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    /**
+     * Token còn hiệu lực khi user còn tồn tại, đang hoạt động và version khớp.
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        UserPrincipal principal = userPrincipalService.loadUserById(userId);
+        return principal != null && principal.isEnabled() && principal.getTokenVersion() == tokenVersion;
+    }
+
+    // Thu hồi toàn bộ access token đang lưu hành của user
+    public void revokeAll(Long userId) {
+        userRepository.incrementTokenVersion(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principalCache.evictUser(userId);
+                }
+            });
+        } else {
+            principalCache.evictUser(userId);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ra.social_media.security.principal;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ra.social_media.utils.ExpiringCache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache UserPrincipal theo id, kèm bảng chuỗi login (username hoặc email) -> id, để login và JWT filter
+ * không phải query DB mỗi lần. Xoá theo id là một lần tra trực tiếp; key login trỏ tới id đã xoá chỉ thành miss.
+ */
+@Component
+public class PrincipalCache {
+
+    private final ExpiringCache<Long, UserPrincipal> principals;
+    private final ExpiringCache<String, Long> idsByLogin;
+    // Tăng mỗi lần evict: lần nạp bắt đầu trước một lần evict không được ghi đè bằng dữ liệu cũ
+    private final AtomicLong evictions = new AtomicLong();
+
+    public PrincipalCache(@Value("${principal_cache_size:10000}") int maxSize,
+                          @Value("${principal_cache_ttl:300000}") long ttlMillis,
+                          MeterRegistry meterRegistry) {
+        this.principals = new ExpiringCache<>(maxSize, ttlMillis);
+        this.idsByLogin = new ExpiringCache<>(maxSize, ttlMillis);
+
+        FunctionCounter.builder("principal.cache.requests", principals, c -> c.hitCount())
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("principal.cache.requests", principals, c -> c.missCount())
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("principal.cache.size", principals, c -> c.size())
+                .register(meterRegistry);
+    }
+
+    public UserPrincipal get(String login) {
+        Long id = idsByLogin.peek(login);
+        if (id == null) {
+            return null;
+        }
+        UserPrincipal principal = principals.get(id);
+        // Username / email có thể đã đổi sang user khác kể từ lúc ghi key
+        if (principal == null || !(login.equals(principal.getUsername()) || login.equals(principal.getEmail()))) {
+            return null;
+        }
+        return principal;
+    }
+
+    public UserPrincipal getById(Long userId) {
+        return principals.get(userId);
+    }
+
+    /**
+     * Mốc để truyền lại cho put: lấy trước khi đọc DB.
+     */
+    public long stamp() {
+        return evictions.get();
+    }
+
+    /**
+     * Ghi principal vừa đọc từ DB, bỏ qua nếu có lần evict nào xảy ra sau stamp (dữ liệu đọc được có thể đã cũ).
+     * login null khi nạp theo id.
+     */
+    public void put(String login, UserPrincipal principal, long stamp) {
+        if (evictions.get() != stamp) {
+            return;
+        }
+        principals.put(principal.getId(), principal);
+        if (login != null) {
+            idsByLogin.put(login, principal.getId());
+        }
+        // Evict chen vào giữa lúc kiểm tra và lúc ghi
+        if (evictions.get() != stamp) {
+            principals.invalidate(principal.getId());
+        }
+    }
+
+    public void evictUser(Long userId) {
+        evictions.incrementAndGet();
+        principals.invalidate(userId);
+    }
+}
@@ -15,11 +15,13 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 public class UserPrincipal implements UserDetails {
+    private Long id;
     private String username;
     private String password;
     private String email;
     private String fullName;
     private Boolean isActive;
+    private int tokenVersion;
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -53,6 +55,6 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return isActive;
+        return Boolean.TRUE.equals(isActive);
     }
 }
\ No newline at end of file
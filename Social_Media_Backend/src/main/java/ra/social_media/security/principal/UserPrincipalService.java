@@ -2,31 +2,83 @@ package ra.social_media.security.principal;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import ra.social_media.model.entity.User;
+import ra.social_media.model.dto.projection.UserAuthView;
 import ra.social_media.repository.UserRepository;
 
 @Service
-public class UserPrincipalService implements UserDetailsService {
+public class UserPrincipalService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     @Override
     public UserDetails loadUserByUsername(String loginInput) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(loginInput)
-                .orElseGet(() -> userRepository.findByEmail(loginInput)
-                        .orElseThrow(() -> new UsernameNotFoundException("User not found: " + loginInput))
-                );
+        UserPrincipal cached = principalCache.get(loginInput);
+        if (cached != null) {
+            return cached;
+        }
+
+        long stamp = principalCache.stamp();
+        UserAuthView user = userRepository.findAuthViewsByLogin(loginInput).stream()
+                .findFirst()
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + loginInput));
+
+        UserPrincipal principal = toPrincipal(user);
+        principalCache.put(loginInput, principal, stamp);
+        return principal;
+    }
+
+    /**
+     * Principal hiện tại theo id (qua cache), null nếu user không còn tồn tại.
+     */
+    public UserPrincipal loadUserById(Long userId) {
+        UserPrincipal cached = principalCache.getById(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long stamp = principalCache.stamp();
+        UserPrincipal principal = userRepository.findAuthViewById(userId).map(this::toPrincipal).orElse(null);
+        if (principal != null) {
+            principalCache.put(null, principal, stamp);
+        }
+        return principal;
+    }
+
+    // Được DaoAuthenticationProvider gọi khi hash cũ dùng cost khác cấu hình (rehash khi login)
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newEncodedPassword) {
+        UserPrincipal principal = (UserPrincipal) userDetails;
+        userRepository.updatePasswordHash(principal.getId(), newEncodedPassword);
+        principalCache.evictUser(principal.getId());
+
+        return UserPrincipal.builder()
+                .id(principal.getId())
+                .username(principal.getUsername())
+                .password(newEncodedPassword)
+                .email(principal.getEmail())
+                .fullName(principal.getFullName())
+                .isActive(principal.getIsActive())
+                .tokenVersion(principal.getTokenVersion())
+                .build();
+    }
 
+    private UserPrincipal toPrincipal(UserAuthView user) {
         return UserPrincipal.builder()
+                .id(user.getId())
                 .username(user.getUsername())
                 .password(user.getPasswordHash())
                 .email(user.getEmail())
                 .fullName(user.getFullName())
                 .isActive(user.getStatus())
+                .tokenVersion(user.getTokenVersion() == null ? 0 : user.getTokenVersion())
                 .build();
     }
 }
@@ -0,0 +1,55 @@
+package ra.social_media.security.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String AUTH_PATH = "/api/v1/auth/";
+
+    // Body được dựng sẵn một lần, từ chối request không tốn thêm serialize JSON
+    private static final byte[] REJECTION_BODY =
+            "{\"success\":false,\"status\":429,\"message\":\"Quá nhiều yêu cầu, vui lòng thử lại sau\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        // Mọi method dưới /api/v1/auth/ đều bị giới hạn (GET availability cho phép dò tài khoản), trừ preflight CORS
+        return HttpMethod.OPTIONS.matches(request.getMethod()) || !path.startsWith(AUTH_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        long waitNanos = HttpMethod.GET.matches(request.getMethod())
+                ? authRateLimiter.tryAcquireLookupIp(request.getRemoteAddr())
+                : authRateLimiter.tryAcquireIp(request.getRemoteAddr());
+        if (waitNanos > 0) {
+            response.setStatus(429);
+            response.setHeader("Retry-After", String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1)));
+            response.setContentType("application/json;charset=UTF-8");
+            response.setContentLength(REJECTION_BODY.length);
+            response.getOutputStream().write(REJECTION_BODY);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
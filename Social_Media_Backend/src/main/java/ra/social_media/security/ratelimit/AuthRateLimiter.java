@@ -0,0 +1,53 @@
+package ra.social_media.security.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ra.social_media.exception.HttpTooManyRequests;
+
+import java.util.Locale;
+
+/**
+ * Giới hạn tần suất cho các endpoint xác thực: theo IP (ở filter) và theo tài khoản (ở service login).
+ * Endpoint tra cứu (GET, ví dụ kiểm tra username / email còn trống) có bucket IP riêng rộng hơn để không ăn vào lượt đăng nhập.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private final TokenBucketLimiter ipLimiter;
+    private final TokenBucketLimiter accountLimiter;
+    private final TokenBucketLimiter lookupLimiter;
+
+    public AuthRateLimiter(@Value("${auth_rate_ip_per_minute:30}") int ipPerMinute,
+                           @Value("${auth_rate_ip_burst:10}") int ipBurst,
+                           @Value("${auth_rate_account_per_minute:10}") int accountPerMinute,
+                           @Value("${auth_rate_account_burst:5}") int accountBurst,
+                           @Value("${auth_rate_lookup_per_minute:60}") int lookupPerMinute,
+                           @Value("${auth_rate_lookup_burst:20}") int lookupBurst,
+                           @Value("${auth_rate_max_keys:200000}") int maxKeys) {
+        this.ipLimiter = new TokenBucketLimiter(ipPerMinute, ipBurst, maxKeys);
+        this.accountLimiter = new TokenBucketLimiter(accountPerMinute, accountBurst, maxKeys);
+        this.lookupLimiter = new TokenBucketLimiter(lookupPerMinute, lookupBurst, maxKeys);
+    }
+
+    public long tryAcquireIp(String ip) {
+        return ipLimiter.tryAcquire(ip);
+    }
+
+    public long tryAcquireLookupIp(String ip) {
+        return lookupLimiter.tryAcquire(ip);
+    }
+
+    public void checkAccount(String login) {
+        if (login != null && accountLimiter.tryAcquire(login.trim().toLowerCase(Locale.ROOT)) > 0) {
+            throw new HttpTooManyRequests("Bạn đã thử đăng nhập quá nhiều lần, vui lòng thử lại sau");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth_rate_evict_interval:30000}")
+    public void evictIdle() {
+        ipLimiter.evictIdle();
+        accountLimiter.evictIdle();
+        lookupLimiter.evictIdle();
+    }
+}
@@ -0,0 +1,66 @@
+package ra.social_media.security.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket theo key, cài đặt bằng GCRA: mỗi bucket chỉ là một AtomicLong
+ * (theoretical arrival time - TAT) cập nhật bằng CAS, không có lock.
+ * Bucket có TAT <= now là bucket đã đầy lại, xoá đi không làm mất trạng thái nào.
+ * Việc dọn bucket chỉ chạy theo lịch (evictIdle); khi đã theo dõi đủ maxKeys key, mọi key mới dùng chung
+ * một bucket tràn, nên xoay vòng IP / username vừa không làm request phải quét map vừa không lọt giới hạn.
+ */
+public class TokenBucketLimiter {
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow = new AtomicLong(System.nanoTime());
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxKeys;
+
+    public TokenBucketLimiter(int permitsPerMinute, int burst, int maxKeys) {
+        this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, permitsPerMinute);
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(0, burst - 1);
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * @return 0 nếu được phép, ngược lại là số nano giây cần chờ trước khi thử lại
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong tat = buckets.get(key);
+        if (tat == null) {
+            if (buckets.size() >= maxKeys) {
+                // Map đầy: không theo dõi thêm key mới để bộ nhớ luôn bị chặn trên, tính vào bucket tràn dùng chung
+                return acquire(overflow, now);
+            }
+            tat = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        return acquire(tat, now);
+    }
+
+    private long acquire(AtomicLong tat, long now) {
+        while (true) {
+            long current = tat.get();
+            long base = current - now > 0 ? current : now;
+            long wait = base - now - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, base + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(tat -> tat.get() - now <= 0);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,11 @@
+package ra.social_media.service;
+
+import ra.social_media.model.dto.response.CommentResponse;
+import ra.social_media.model.dto.response.CursorPageResponse;
+
+public interface CommentService {
+    // Bình luận gốc của bài, mỗi bình luận kèm vài trả lời đầu tiên
+    CursorPageResponse<CommentResponse> getComments(Long postId, String cursor, int limit);
+
+    CursorPageResponse<CommentResponse> getReplies(Long commentId, String cursor, int limit);
+}
@@ -0,0 +1,23 @@
+package ra.social_media.service;
+
+import ra.social_media.utils.CounterType;
+
+public interface CounterService {
+    void add(CounterType type, Long id, long delta);
+
+    void increment(CounterType type, Long id);
+
+    void decrement(CounterType type, Long id);
+
+    /**
+     * Phần chênh lệch chưa được ghi xuống DB.
+     */
+    long pending(CounterType type, Long id);
+
+    /**
+     * Giá trị hiện tại = giá trị đã lưu (đọc từ entity) + phần đang chờ flush.
+     */
+    int current(CounterType type, Long id, int persisted);
+
+    void flush();
+}
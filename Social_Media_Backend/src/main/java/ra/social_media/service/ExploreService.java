@@ -0,0 +1,8 @@
+package ra.social_media.service;
+
+import ra.social_media.model.dto.response.CursorPageResponse;
+import ra.social_media.model.dto.response.PostResponse;
+
+public interface ExploreService {
+    CursorPageResponse<PostResponse> explore(String cursor, int limit);
+}
@@ -0,0 +1,13 @@
+package ra.social_media.service;
+
+import ra.social_media.model.dto.response.CursorPageResponse;
+import ra.social_media.model.dto.response.ProfileCardResponse;
+
+public interface FollowService {
+    CursorPageResponse<ProfileCardResponse> getFollowers(Long userId, String cursor, int limit);
+
+    CursorPageResponse<ProfileCardResponse> getFollowing(Long userId, String cursor, int limit);
+
+    // Tài khoản riêng tư chỉ chủ tài khoản và người đang theo dõi mới xem được bài, danh sách follow
+    void ensureCanView(Long viewerId, Long ownerId);
+}
@@ -0,0 +1,8 @@
+package ra.social_media.service;
+
+import org.springframework.web.multipart.MultipartFile;
+import ra.social_media.model.dto.response.MediaResponse;
+
+public interface MediaService {
+    MediaResponse addImageToPost(Long postId, MultipartFile file);
+}
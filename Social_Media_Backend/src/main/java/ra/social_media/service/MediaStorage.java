@@ -0,0 +1,27 @@
+package ra.social_media.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Nơi lưu trữ file media (Cloudinary, ổ đĩa local, ...).
+ * Chọn implementation qua thuộc tính media_storage.
+ */
+public interface MediaStorage {
+
+    /**
+     * Lưu file đã được ghi sẵn ra đĩa và trả về URL public.
+     * Storage có thể di chuyển file đi, caller không được dùng lại đường dẫn sau khi gọi.
+     */
+    String store(Path file, String folder, String contentType) throws IOException;
+
+    /**
+     * Như store(file, folder, contentType) khi caller đã biết SHA-256 của nội dung,
+     * storage theo địa chỉ nội dung có thể dùng luôn thay vì đọc lại file.
+     */
+    default String store(Path file, String sha256, String folder, String contentType) throws IOException {
+        return store(file, folder, contentType);
+    }
+
+    void delete(String url) throws IOException;
+}
@@ -0,0 +1,21 @@
+package ra.social_media.service;
+
+import ra.social_media.model.dto.request.PostRequest;
+import ra.social_media.model.dto.response.CursorPageResponse;
+import ra.social_media.model.dto.response.LikeResponse;
+import ra.social_media.model.dto.response.PostResponse;
+
+public interface PostService {
+    PostResponse createPost(PostRequest postRequest);
+
+    CursorPageResponse<PostResponse> getHomeFeed(String cursor, int limit);
+
+    CursorPageResponse<PostResponse> getUserPosts(Long userId, String cursor, int limit);
+
+    CursorPageResponse<PostResponse> getSavedPosts(String cursor, int limit);
+
+    // Idempotent: like lại bài đã like / bỏ like bài chưa like không đổi gì
+    LikeResponse likePost(Long postId);
+
+    LikeResponse unlikePost(Long postId);
+}
@@ -1,10 +1,18 @@
 package ra.social_media.service;
 
 import ra.social_media.model.dto.request.ProfileRequest;
+import ra.social_media.model.dto.response.ProfileCardResponse;
 import ra.social_media.model.dto.response.ProfileResponse;
+import ra.social_media.model.dto.response.ProfileSnapshot;
+
+import java.util.List;
 
 public interface ProfileService {
     ProfileResponse getProfile();
 
+    ProfileSnapshot getProfileSnapshot();
+
     ProfileResponse updateProfile(ProfileRequest profileRequest);
+
+    List<ProfileCardResponse> getProfileCards(List<Long> userIds);
 }
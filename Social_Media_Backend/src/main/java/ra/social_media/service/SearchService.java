@@ -0,0 +1,14 @@
+package ra.social_media.service;
+
+import ra.social_media.model.dto.response.CursorPageResponse;
+import ra.social_media.model.dto.response.PostResponse;
+import ra.social_media.model.dto.response.ProfileCardResponse;
+import ra.social_media.model.dto.response.TagResponse;
+
+public interface SearchService {
+    CursorPageResponse<PostResponse> searchPosts(String query, String cursor, int limit);
+
+    CursorPageResponse<ProfileCardResponse> searchUsers(String query, String cursor, int limit);
+
+    CursorPageResponse<TagResponse> searchTags(String query, String cursor, int limit);
+}
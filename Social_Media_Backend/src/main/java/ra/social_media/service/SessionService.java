@@ -0,0 +1,10 @@
+package ra.social_media.service;
+
+public interface SessionService {
+    IssuedSession startSession(Long userId, String username);
+
+    IssuedSession rotate(String refreshToken);
+
+    record IssuedSession(String sessionId, Long userId, String username, String refreshToken) {
+    }
+}
@@ -0,0 +1,14 @@
+package ra.social_media.service;
+
+import ra.social_media.model.entity.Post;
+
+import java.util.List;
+
+public interface TimelineService {
+    void onPostCreated(Post post);
+
+    /**
+     * Id các bài trên home feed của user, mới nhất trước, cũ hơn con trỏ (createdAt micro giây, postId).
+     */
+    List<Long> homeTimeline(Long userId, long beforeCreatedAt, long beforePostId, int limit);
+}
@@ -0,0 +1,12 @@
+package ra.social_media.service;
+
+import ra.social_media.model.dto.response.TrendingTagResponse;
+
+import java.util.List;
+
+public interface TrendingService {
+    void record(String tag);
+
+    // window: "1h" hoặc "24h"
+    List<TrendingTagResponse> trending(String window, int limit);
+}
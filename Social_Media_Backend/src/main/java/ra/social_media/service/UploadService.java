@@ -0,0 +1,17 @@
+package ra.social_media.service;
+
+import ra.social_media.model.dto.request.UploadInitRequest;
+import ra.social_media.model.dto.response.MediaResponse;
+import ra.social_media.model.dto.response.UploadSessionResponse;
+
+import java.io.InputStream;
+
+public interface UploadService {
+    UploadSessionResponse init(UploadInitRequest request);
+
+    UploadSessionResponse writeChunk(String uploadId, int index, String sha256, InputStream body);
+
+    UploadSessionResponse status(String uploadId);
+
+    MediaResponse complete(String uploadId);
+}
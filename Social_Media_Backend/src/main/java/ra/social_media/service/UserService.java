@@ -1,7 +1,9 @@
 package ra.social_media.service;
 
+import ra.social_media.model.dto.request.RefreshTokenRequest;
 import ra.social_media.model.dto.request.UserLogin;
 import ra.social_media.model.dto.request.UserRegister;
+import ra.social_media.model.dto.response.AvailabilityResponse;
 import ra.social_media.model.dto.response.JWTResponse;
 import ra.social_media.model.dto.response.UserRegisterResponse;
 import ra.social_media.model.entity.User;
@@ -10,4 +12,8 @@ public interface UserService {
     UserRegisterResponse register(UserRegister userRegister);
 
     JWTResponse login(UserLogin userLogin);
+
+    JWTResponse refreshToken(RefreshTokenRequest refreshTokenRequest);
+
+    AvailabilityResponse checkAvailability(String username, String email);
 }
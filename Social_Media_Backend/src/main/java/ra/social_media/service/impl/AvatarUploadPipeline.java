@@ -0,0 +1,197 @@
+package ra.social_media.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ra.social_media.exception.HttpServiceUnavailable;
+import ra.social_media.repository.ProfileRepository;
+import ra.social_media.utils.AvatarStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Upload avatar bất đồng bộ: request chỉ ghi file ra đĩa tạm rồi trả về ngay với trạng thái PENDING,
+ * việc đẩy lên storage chạy trên pool giới hạn và được thử lại khi lỗi.
+ * Hàng đợi chỉ nằm trong bộ nhớ: khi khởi động, profile còn PENDING được chuyển sang FAILED (người dùng tải lại ảnh)
+ * và file tạm avatar còn sót bị xoá.
+ */
+@Slf4j
+@Component
+public class AvatarUploadPipeline {
+
+    static final String AVATAR_FOLDER = "social_media_avatars";
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private DedupMediaStore dedupMediaStore;
+
+    @Autowired
+    private ProfileCache profileCache;
+
+    @Autowired
+    private MediaSpool mediaSpool;
+
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService retryScheduler;
+
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Counter superseded;
+    private final Counter retried;
+
+    public AvatarUploadPipeline(@Value("${avatar_upload_threads:4}") int threads,
+                                @Value("${avatar_upload_queue_capacity:200}") int queueCapacity,
+                                @Value("${avatar_upload_max_attempts:3}") int maxAttempts,
+                                @Value("${avatar_upload_retry_backoff:2000}") long retryBackoffMillis,
+                                MeterRegistry meterRegistry) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMillis = retryBackoffMillis;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "avatar-upload-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "avatar-upload-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.succeeded = Counter.builder("avatar.upload").tag("result", "success").register(meterRegistry);
+        this.failed = Counter.builder("avatar.upload").tag("result", "failure").register(meterRegistry);
+        this.superseded = Counter.builder("avatar.upload").tag("result", "superseded").register(meterRegistry);
+        this.retried = Counter.builder("avatar.upload.retries").register(meterRegistry);
+        Gauge.builder("avatar.upload.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverAbandonedUploads() {
+        int failedRows = profileRepository.failAbandonedAvatarUploads(AvatarStatus.PENDING, AvatarStatus.FAILED);
+        int deletedFiles = 0;
+        try {
+            deletedFiles = mediaSpool.purge("avatar");
+        } catch (IOException e) {
+            log.warn("Không dọn được file tạm avatar", e);
+        }
+        if (failedRows > 0 || deletedFiles > 0) {
+            log.info("Đã huỷ {} lần upload avatar dở dang và xoá {} file tạm", failedRows, deletedFiles);
+        }
+    }
+
+    /**
+     * Từ chối sớm (trước khi ghi profile) khi hàng đợi đã đầy.
+     */
+    public void checkCapacity() {
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new HttpServiceUnavailable("Hệ thống đang bận, vui lòng thử lại sau");
+        }
+    }
+
+    /**
+     * Đưa file đã spool vào hàng đợi upload, gọi sau khi transaction ghi token đã commit.
+     * Pipeline chịu trách nhiệm xoá file tạm; hàng đợi đầy thì lần upload bị đánh dấu FAILED.
+     */
+    public void submit(Long profileId, String uploadToken, MediaSpool.SpooledFile file, String contentType) {
+        AvatarUpload upload = new AvatarUpload(profileId, uploadToken, file.path(), file.sha256(), contentType);
+        try {
+            executor.execute(() -> attempt(upload, 1));
+        } catch (RejectedExecutionException e) {
+            log.warn("Hàng đợi upload avatar đầy, huỷ upload cho profile {}", profileId);
+            giveUp(upload);
+        }
+    }
+
+    private void attempt(AvatarUpload upload, int attempt) {
+        String url;
+        try {
+            // Ảnh đã từng upload (cùng SHA-256) thì dùng lại URL cũ, không upload lại
+            url = dedupMediaStore.acquire(upload.file(), upload.sha256(), AVATAR_FOLDER, upload.contentType());
+        } catch (Exception e) {
+            if (attempt < maxAttempts && scheduleRetry(upload, attempt + 1)) {
+                log.warn("Upload avatar cho profile {} lỗi (lần {}), sẽ thử lại: {}", upload.profileId(), attempt, e.getMessage());
+                return;
+            }
+            log.error("Upload avatar cho profile {} thất bại sau {} lần", upload.profileId(), attempt, e);
+            giveUp(upload);
+            return;
+        }
+        deleteQuietly(upload.file());
+
+        // Chỉ lần upload đang chờ mới ghi được avatarUrl nên đọc URL cũ trước khi cập nhật là an toàn
+        String previousUrl = profileRepository.findAvatarUrlById(upload.profileId());
+        int updated = profileRepository.completeAvatarUpload(upload.profileId(), upload.uploadToken(), url, AvatarStatus.READY);
+        profileCache.evict(upload.profileId());
+        if (updated == 0) {
+            // Đã có lần upload mới hơn, ảnh này không còn được dùng
+            superseded.increment();
+            dedupMediaStore.release(url);
+            return;
+        }
+        if (previousUrl != null && !previousUrl.equals(url)) {
+            dedupMediaStore.release(previousUrl);
+        }
+        succeeded.increment();
+    }
+
+    // Lùi thời gian chờ theo cấp số nhân: backoff, 2*backoff, 4*backoff...
+    private boolean scheduleRetry(AvatarUpload upload, int nextAttempt) {
+        long delay = retryBackoffMillis << Math.min(nextAttempt - 2, 10);
+        try {
+            retryScheduler.schedule(() -> {
+                try {
+                    executor.execute(() -> attempt(upload, nextAttempt));
+                } catch (RejectedExecutionException e) {
+                    giveUp(upload);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+            retried.increment();
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void giveUp(AvatarUpload upload) {
+        deleteQuietly(upload.file());
+        profileRepository.failAvatarUpload(upload.profileId(), upload.uploadToken(), AvatarStatus.FAILED);
+        profileCache.evict(upload.profileId());
+        failed.increment();
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Không xoá được file tạm {}", file, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        executor.shutdown();
+    }
+
+    private record AvatarUpload(Long profileId, String uploadToken, Path file, String sha256, String contentType) {
+    }
+}
@@ -3,25 +3,51 @@ package ra.social_media.service.impl;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import ra.social_media.service.MediaStorage;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
-public class CloudinaryService {
+@ConditionalOnProperty(name = "media_storage", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryService implements MediaStorage {
 
     private final Cloudinary cloudinary;
 
-    public String uploadImage(MultipartFile file) {
-        try {
-            Map uploadResult = cloudinary.uploader().upload(file.getBytes(),
-                    ObjectUtils.asMap("folder", "social_media_avatars")); // Optional: tạo folder riêng
-            return uploadResult.get("secure_url").toString();
-        } catch (IOException e) {
-            throw new RuntimeException("Lỗi upload ảnh lên Cloudinary: " + e.getMessage());
+    // Upload trực tiếp từ file trên đĩa, SDK sẽ stream nội dung thay vì đọc hết vào heap
+    @Override
+    public String store(Path file, String folder, String contentType) throws IOException {
+        Map uploadResult = cloudinary.uploader().upload(file.toFile(),
+                ObjectUtils.asMap("folder", folder));
+        return uploadResult.get("secure_url").toString();
+    }
+
+    @Override
+    public void delete(String url) throws IOException {
+        String publicId = publicIdOf(url);
+        if (publicId != null) {
+            cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+        }
+    }
+
+    // https://res.cloudinary.com/<cloud>/image/upload/v123/<folder>/<name>.jpg -> <folder>/<name>
+    private static String publicIdOf(String url) {
+        if (url == null) {
+            return null;
+        }
+        int upload = url.indexOf("/upload/");
+        if (upload < 0) {
+            return null;
+        }
+        String path = url.substring(upload + "/upload/".length());
+        if (path.startsWith("v") && path.indexOf('/') > 0 && path.substring(1, path.indexOf('/')).chars().allMatch(Character::isDigit)) {
+            path = path.substring(path.indexOf('/') + 1);
         }
+        int dot = path.lastIndexOf('.');
+        return dot > 0 ? path.substring(0, dot) : path;
     }
 }
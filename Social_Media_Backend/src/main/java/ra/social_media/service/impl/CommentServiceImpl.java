@@ -0,0 +1,168 @@
+package ra.social_media.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import ra.social_media.exception.HttpForbidden;
+import ra.social_media.exception.HttpNotFound;
+import ra.social_media.model.dto.response.CommentResponse;
+import ra.social_media.model.dto.response.CursorPageResponse;
+import ra.social_media.model.dto.response.ProfileCardResponse;
+import ra.social_media.model.entity.Comment;
+import ra.social_media.model.entity.Post;
+import ra.social_media.repository.CommentRepository;
+import ra.social_media.repository.PostRepository;
+import ra.social_media.security.principal.UserPrincipal;
+import ra.social_media.service.CommentService;
+import ra.social_media.service.CounterService;
+import ra.social_media.service.FollowService;
+import ra.social_media.utils.CounterType;
+import ra.social_media.utils.CursorCodec;
+import ra.social_media.utils.PostVisibility;
+
+import java.util.*;
+
+@Service
+public class CommentServiceImpl implements CommentService {
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private FollowService followService;
+
+    @Autowired
+    private ProfileCardLoader profileCardLoader;
+
+    @Autowired
+    private CounterService counterService;
+
+    @Value("${page_max:50}")
+    private int pageMax;
+
+    @Value("${comment_reply_preview:3}")
+    private int replyPreview;
+
+    @Override
+    public CursorPageResponse<CommentResponse> getComments(Long postId, String cursor, int limit) {
+        UserPrincipal userPrincipal = currentUser();
+        Post post = postRepository.findById(postId).orElseThrow(() -> new HttpNotFound("Không tìm thấy bài viết"));
+        ensureCanView(userPrincipal.getId(), post);
+
+        CursorCodec.Cursor position = CursorCodec.decode(cursor);
+        int size = Math.max(1, Math.min(limit, pageMax));
+        List<Comment> comments = commentRepository.findTopLevelPage(postId, position.createdAtTime(), position.id(), Pageable.ofSize(size));
+
+        // Lấy dư một trả lời mỗi thread để biết còn nữa hay không
+        Map<Long, List<Comment>> replies = new HashMap<>();
+        if (!comments.isEmpty() && replyPreview > 0) {
+            List<Long> parentIds = comments.stream().map(Comment::getId).toList();
+            for (Comment reply : commentRepository.findFirstReplies(parentIds, replyPreview + 1)) {
+                replies.computeIfAbsent(reply.getParentId(), k -> new ArrayList<>()).add(reply);
+            }
+        }
+
+        List<Comment> all = new ArrayList<>(comments);
+        replies.values().forEach(all::addAll);
+        Map<Long, ProfileCardResponse> authors = loadAuthors(all);
+
+        List<CommentResponse> items = new ArrayList<>(comments.size());
+        for (Comment comment : comments) {
+            CommentResponse response = toResponse(comment, authors);
+            List<Comment> thread = replies.getOrDefault(comment.getId(), List.of());
+            List<Comment> shown = thread.size() > replyPreview ? thread.subList(0, replyPreview) : thread;
+            response.setReplies(shown.stream().map(reply -> toResponse(reply, authors)).toList());
+            if (thread.size() > replyPreview) {
+                Comment last = shown.get(shown.size() - 1);
+                response.setRepliesCursor(CursorCodec.encode(last.getCreatedAt(), last.getId()));
+            }
+            items.add(response);
+        }
+
+        String nextCursor = null;
+        if (comments.size() == size) {
+            Comment last = comments.get(comments.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPageResponse<>(items, nextCursor);
+    }
+
+    @Override
+    public CursorPageResponse<CommentResponse> getReplies(Long commentId, String cursor, int limit) {
+        UserPrincipal userPrincipal = currentUser();
+        Comment parent = commentRepository.findById(commentId).orElseThrow(() -> new HttpNotFound("Không tìm thấy bình luận"));
+        Post post = postRepository.findById(parent.getPostId()).orElseThrow(() -> new HttpNotFound("Không tìm thấy bài viết"));
+        ensureCanView(userPrincipal.getId(), post);
+
+        CursorCodec.Cursor position = CursorCodec.decode(cursor, CursorCodec.START_ASCENDING);
+        int size = Math.max(1, Math.min(limit, pageMax));
+        List<Comment> replies = commentRepository.findRepliesPage(commentId, position.createdAtTime(), position.id(), Pageable.ofSize(size));
+
+        Map<Long, ProfileCardResponse> authors = loadAuthors(replies);
+        List<CommentResponse> items = replies.stream().map(reply -> toResponse(reply, authors)).toList();
+
+        String nextCursor = null;
+        if (replies.size() == size) {
+            Comment last = replies.get(replies.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPageResponse<>(items, nextCursor);
+    }
+
+    private void ensureCanView(Long viewerId, Post post) {
+        if (post.getAuthorId().equals(viewerId)) {
+            return;
+        }
+        if (post.getVisibility() != PostVisibility.PUBLIC) {
+            throw new HttpForbidden("Bạn không có quyền xem bài viết này");
+        }
+        followService.ensureCanView(viewerId, post.getAuthorId());
+    }
+
+    private Map<Long, ProfileCardResponse> loadAuthors(List<Comment> comments) {
+        Map<Long, ProfileCardResponse> authors = new HashMap<>();
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (Comment comment : comments) {
+            if (!comment.isDeleted()) {
+                userIds.add(comment.getUserId());
+            }
+        }
+        if (userIds.isEmpty()) {
+            return authors;
+        }
+        for (ProfileCardResponse card : profileCardLoader.load(userIds)) {
+            authors.put(card.getUserId(), card);
+        }
+        return authors;
+    }
+
+    private CommentResponse toResponse(Comment comment, Map<Long, ProfileCardResponse> authors) {
+        CommentResponse.CommentResponseBuilder builder = CommentResponse.builder()
+                .id(comment.getId())
+                .postId(comment.getPostId())
+                .parentId(comment.getParentId())
+                .likeCount(counterService.current(CounterType.COMMENT_LIKES, comment.getId(), comment.getLikeCount()))
+                .replyCount(counterService.current(CounterType.COMMENT_REPLIES, comment.getId(), comment.getReplyCount()))
+                .createdAt(comment.getCreatedAt())
+                .deleted(comment.isDeleted());
+        // Bình luận đã xoá chỉ còn là chỗ giữ trong thread
+        if (!comment.isDeleted()) {
+            builder.author(authors.get(comment.getUserId())).content(comment.getContent());
+        }
+        return builder.build();
+    }
+
+    private UserPrincipal currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal userPrincipal)) {
+            throw new RuntimeException("Không thể xác định người dùng hiện tại");
+        }
+        return userPrincipal;
+    }
+}
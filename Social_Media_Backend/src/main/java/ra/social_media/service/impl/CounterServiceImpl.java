@@ -0,0 +1,164 @@
+package ra.social_media.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ra.social_media.service.CounterService;
+import ra.social_media.utils.CounterType;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bộ đếm ghi trễ: mỗi lần tăng/giảm chỉ cộng vào một LongAdder trong bộ nhớ (không khoá dòng, không đọc DB),
+ * định kỳ gom lại thành các câu "UPDATE ... SET x = x + ?" theo batch.
+ * Đọc = giá trị trong DB + phần chưa flush.
+ */
+@Slf4j
+@Service
+public class CounterServiceImpl implements CounterService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProfileCache profileCache;
+
+    private final ConcurrentHashMap<CounterKey, Cell> cells = new ConcurrentHashMap<>();
+
+    private final Timer flushTimer;
+    private final Counter flushedRows;
+
+    public CounterServiceImpl(MeterRegistry meterRegistry) {
+        this.flushTimer = Timer.builder("counter.flush.latency").register(meterRegistry);
+        this.flushedRows = Counter.builder("counter.flush.rows").register(meterRegistry);
+        Gauge.builder("counter.pending.keys", cells, c -> c.size()).register(meterRegistry);
+    }
+
+    @Override
+    public void add(CounterType type, Long id, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        CounterKey key = new CounterKey(type, id);
+        while (true) {
+            Cell cell = cells.computeIfAbsent(key, k -> new Cell());
+            cell.adder.add(delta);
+            if (!cell.retired) {
+                break;
+            }
+            // Cell vừa bị flush gỡ khỏi map: hoàn tác rồi cộng vào cell mới
+            cell.adder.add(-delta);
+        }
+        if (type.isProfileCounter()) {
+            profileCache.evict(id);
+        }
+    }
+
+    @Override
+    public void increment(CounterType type, Long id) {
+        add(type, id, 1);
+    }
+
+    @Override
+    public void decrement(CounterType type, Long id) {
+        add(type, id, -1);
+    }
+
+    @Override
+    public long pending(CounterType type, Long id) {
+        Cell cell = cells.get(new CounterKey(type, id));
+        return cell == null ? 0 : cell.adder.sum();
+    }
+
+    @Override
+    public int current(CounterType type, Long id, int persisted) {
+        return (int) Math.max(0, persisted + pending(type, id));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${counter_flush_interval:2000}")
+    public void flush() {
+        if (cells.isEmpty()) {
+            return;
+        }
+        Timer.Sample sample = Timer.start();
+
+        // Chụp phần chênh lệch hiện tại, nhóm theo bảng/cột, sắp theo id để mọi lần flush khoá dòng cùng thứ tự
+        Map<CounterType, TreeMap<Long, Long>> batches = new EnumMap<>(CounterType.class);
+        Map<Cell, Long> snapshot = new HashMap<>();
+        cells.forEach((key, cell) -> {
+            long delta = cell.adder.sum();
+            if (delta != 0) {
+                snapshot.put(cell, delta);
+                batches.computeIfAbsent(key.type(), t -> new TreeMap<>()).put(key.id(), delta);
+            }
+        });
+
+        if (!snapshot.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> batches.forEach(this::writeBatch));
+            } catch (RuntimeException e) {
+                // Giữ nguyên phần chênh lệch, lần flush sau sẽ thử lại
+                log.error("Flush bộ đếm thất bại, {} key sẽ được thử lại", snapshot.size(), e);
+                sample.stop(flushTimer);
+                return;
+            }
+            // Đã commit: trừ đúng phần đã ghi, các lần cộng xảy ra trong lúc flush vẫn được giữ lại
+            snapshot.forEach((cell, delta) -> cell.adder.add(-delta));
+            flushedRows.increment(snapshot.size());
+        }
+
+        retireIdleCells();
+        sample.stop(flushTimer);
+    }
+
+    private void writeBatch(CounterType type, TreeMap<Long, Long> deltas) {
+        String sql = "update " + type.getTable() + " set " + type.getColumn() + " = greatest(" + type.getColumn() + " + ?, 0) where id = ?";
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> args.add(new Object[]{delta, id}));
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    // Gỡ các cell đã về 0 để map không phình theo số entity từng được đếm.
+    // Đánh dấu retired trước rồi mới đọc lại sum: nếu có thread vừa cộng thì hoặc ta thấy sum != 0,
+    // hoặc thread đó thấy retired và tự chuyển sang cell mới
+    private void retireIdleCells() {
+        cells.forEach((key, cell) -> {
+            if (cell.adder.sum() != 0) {
+                return;
+            }
+            cell.retired = true;
+            if (cell.adder.sum() == 0) {
+                cells.remove(key, cell);
+            } else {
+                cell.retired = false;
+            }
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private record CounterKey(CounterType type, Long id) {
+    }
+
+    private static final class Cell {
+        private final LongAdder adder = new LongAdder();
+        private volatile boolean retired;
+    }
+}
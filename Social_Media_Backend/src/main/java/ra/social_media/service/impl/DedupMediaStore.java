@@ -0,0 +1,122 @@
+package ra.social_media.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ra.social_media.model.entity.MediaObject;
+import ra.social_media.repository.MediaObjectRepository;
+import ra.social_media.service.MediaStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Chỉ mục SHA-256 -> URL phía trước MediaStorage. Nội dung đã có thì tăng refCount và dùng lại URL,
+ * bỏ qua hẳn việc upload; release giảm refCount và chỉ xoá object khi không còn ai dùng.
+ * Lưu file + ghi bản ghi và xoá bản ghi + xoá file chạy dưới cùng một khoá theo hash, để một lần acquire
+ * không thể dùng lại file mà release đồng thời sắp xoá.
+ */
+@Slf4j
+@Component
+public class DedupMediaStore {
+
+    @Autowired
+    private MediaObjectRepository mediaObjectRepository;
+
+    @Autowired
+    private MediaStorage mediaStorage;
+
+    private static final int LOCK_STRIPES = 256;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private final Counter dedupHits;
+    private final Counter uploads;
+
+    public DedupMediaStore(MeterRegistry meterRegistry) {
+        this.dedupHits = Counter.builder("media.dedup").tag("result", "hit").register(meterRegistry);
+        this.uploads = Counter.builder("media.dedup").tag("result", "miss").register(meterRegistry);
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Lấy URL cho nội dung của file (đã biết hash), upload nếu chưa có. Mỗi lần gọi thành công giữ một tham chiếu.
+     * File nguồn luôn bị xoá / chuyển đi sau khi gọi.
+     */
+    public String acquire(Path file, String sha256, String folder, String contentType) throws IOException {
+        Optional<String> existing = reuse(sha256);
+        if (existing.isPresent()) {
+            Files.deleteIfExists(file);
+            dedupHits.increment();
+            return existing.get();
+        }
+
+        long size = Files.size(file);
+        synchronized (lockOf(sha256)) {
+            String url = mediaStorage.store(file, sha256, folder, contentType);
+            uploads.increment();
+
+            // Một upload khác cùng nội dung có thể vừa ghi trước: khi đó chỉ tăng refCount và dùng url của nó
+            mediaObjectRepository.insertOrReference(sha256, url, contentType, size, LocalDateTime.now());
+            String winner = mediaObjectRepository.findUrlByContentHash(sha256)
+                    .orElseThrow(() -> new IllegalStateException("Mất bản ghi media " + sha256));
+            if (!winner.equals(url)) {
+                deleteStoredQuietly(url);
+            }
+            return winner;
+        }
+    }
+
+    public String acquire(Path file, String folder, String contentType) throws IOException {
+        return acquire(file, MediaSpool.sha256Of(file), folder, contentType);
+    }
+
+    /**
+     * Bỏ một tham chiếu tới URL. URL không nằm trong chỉ mục (dữ liệu cũ) thì bỏ qua, không xoá gì.
+     */
+    public void release(String url) {
+        if (url == null) {
+            return;
+        }
+        Optional<String> hash = mediaObjectRepository.findFirstByUrl(url).map(MediaObject::getContentHash);
+        if (hash.isEmpty()) {
+            return;
+        }
+        synchronized (lockOf(hash.get())) {
+            mediaObjectRepository.decrementRefCount(hash.get());
+            if (mediaObjectRepository.deleteUnreferenced(hash.get()) == 1) {
+                deleteStoredQuietly(url);
+            }
+        }
+    }
+
+    // Không cần khoá: tăng refCount trước khi release xoá bản ghi thì release thấy refCount > 0 và giữ file,
+    // tăng sau thì update không trúng dòng nào và acquire đi đường lưu mới (chờ khoá tới khi file cũ đã xoá xong)
+    private Optional<String> reuse(String sha256) {
+        Optional<String> url = mediaObjectRepository.findUrlByContentHash(sha256);
+        if (url.isEmpty() || mediaObjectRepository.incrementRefCount(sha256) == 0) {
+            // Không có, hoặc vừa bị xoá do refCount về 0
+            return Optional.empty();
+        }
+        return url;
+    }
+
+    private Object lockOf(String sha256) {
+        return locks[Math.floorMod(sha256.hashCode(), locks.length)];
+    }
+
+    private void deleteStoredQuietly(String url) {
+        try {
+            mediaStorage.delete(url);
+        } catch (Exception e) {
+            log.warn("Không xoá được media {}", url, e);
+        }
+    }
+}
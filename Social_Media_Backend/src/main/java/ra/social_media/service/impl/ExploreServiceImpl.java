@@ -0,0 +1,199 @@
+package ra.social_media.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ra.social_media.model.dto.projection.ExploreCandidateView;
+import ra.social_media.model.dto.response.CursorPageResponse;
+import ra.social_media.model.dto.response.PostResponse;
+import ra.social_media.model.dto.response.ProfileCardResponse;
+import ra.social_media.repository.BlockRepository;
+import ra.social_media.repository.FollowRepository;
+import ra.social_media.repository.PostRepository;
+import ra.social_media.security.principal.UserPrincipal;
+import ra.social_media.service.CounterService;
+import ra.social_media.service.ExploreService;
+import ra.social_media.utils.CounterType;
+import ra.social_media.utils.CursorCodec;
+import ra.social_media.utils.PostVisibility;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Explore: job nền chấm điểm các bài công khai gần đây rồi giữ top-K trong một snapshot bất biến,
+ * thay snapshot bằng một lần ghi volatile. Request chỉ đọc mảng của snapshot, không khoá, không sắp xếp.
+ * Giữ thêm snapshot liền trước để người đang cuộn dở không bị nhảy thứ tự khi job vừa chạy xong.
+ */
+@Slf4j
+@Service
+public class ExploreServiceImpl implements ExploreService {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private BlockRepository blockRepository;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private PostAssembler postAssembler;
+
+    @Autowired
+    private CounterService counterService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final int candidates;
+    private final Duration maxAge;
+    private final double gravity;
+    private final int pageMax;
+
+    private volatile Snapshots snapshots = new Snapshots(ExploreSnapshot.EMPTY, ExploreSnapshot.EMPTY);
+    private final AtomicLong versions = new AtomicLong();
+
+    private final Timer rankTimer;
+
+    public ExploreServiceImpl(@Value("${explore_candidates:1000}") int candidates,
+                              @Value("${explore_max_age_hours:72}") long maxAgeHours,
+                              @Value("${explore_gravity:1.5}") double gravity,
+                              @Value("${feed_page_max:50}") int pageMax,
+                              MeterRegistry meterRegistry) {
+        this.candidates = candidates;
+        this.maxAge = Duration.ofHours(maxAgeHours);
+        this.gravity = gravity;
+        this.pageMax = pageMax;
+        this.rankTimer = Timer.builder("explore.rank.duration").register(meterRegistry);
+        Gauge.builder("explore.snapshot.size", this, s -> s.snapshots.current().postIds().length).register(meterRegistry);
+    }
+
+    @Override
+    public CursorPageResponse<PostResponse> explore(String cursor, int limit) {
+        UserPrincipal userPrincipal = currentUser();
+        int size = Math.max(1, Math.min(limit, pageMax));
+
+        // Con trỏ Explore mã hoá (phiên bản snapshot, vị trí đọc tiếp) bằng cùng định dạng với con trỏ keyset
+        ExploreSnapshot snapshot = snapshots.current();
+        int offset = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            CursorCodec.Cursor position = CursorCodec.decode(cursor);
+            snapshot = snapshots.find(position.createdAt());
+            offset = (int) Math.max(0, Math.min(position.id(), snapshot.postIds().length));
+        }
+
+        Set<Long> hidden = new HashSet<>(blockRepository.findBlockedIds(userPrincipal.getId()));
+        hidden.addAll(blockRepository.findBlockerIds(userPrincipal.getId()));
+
+        List<Long> ids = new ArrayList<>(size);
+        long[] postIds = snapshot.postIds();
+        long[] authorIds = snapshot.authorIds();
+        int index = offset;
+        while (index < postIds.length && ids.size() < size) {
+            if (!hidden.contains(authorIds[index])) {
+                ids.add(postIds[index]);
+            }
+            index++;
+        }
+
+        Long viewerId = userPrincipal.getId();
+        Map<Long, Boolean> following = new HashMap<>();
+        List<PostResponse> posts = new ArrayList<>(postAssembler.assemble(ids, viewerId));
+        // Snapshot chỉ lấy tác giả công khai lúc xếp hạng; ai chuyển sang riêng tư sau đó bị lọc theo trạng thái hiện tại
+        posts.removeIf(post -> {
+            ProfileCardResponse author = post.getAuthor();
+            return author.isPrivate() && !author.getUserId().equals(viewerId)
+                    && !following.computeIfAbsent(author.getUserId(), id -> followRepository.isFollowing(viewerId, id));
+        });
+
+        String nextCursor = index < postIds.length ? CursorCodec.encode(snapshot.version(), index) : null;
+        return new CursorPageResponse<>(posts, nextCursor);
+    }
+
+    @Scheduled(fixedDelayString = "${explore_rank_interval:300000}")
+    public void rank() {
+        Timer.Sample sample = Timer.start();
+        LocalDateTime now = LocalDateTime.now();
+        // Heap nhỏ nhất theo điểm, giữ đúng candidates phần tử tốt nhất
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(candidates + 1, Comparator.comparingDouble(Candidate::score));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ExploreCandidateView> rows = postRepository.streamExploreCandidates(PostVisibility.PUBLIC, now.minus(maxAge))) {
+                    rows.forEach(row -> {
+                        double score = score(row, now);
+                        if (heap.size() < candidates) {
+                            heap.add(new Candidate(row.getId(), row.getAuthorId(), score));
+                        } else if (score > heap.peek().score()) {
+                            heap.poll();
+                            heap.add(new Candidate(row.getId(), row.getAuthorId(), score));
+                        }
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            // Giữ snapshot cũ, lần chạy sau thử lại
+            log.error("Xếp hạng Explore thất bại", e);
+            return;
+        }
+
+        Candidate[] ranked = heap.toArray(new Candidate[0]);
+        Arrays.sort(ranked, Comparator.comparingDouble(Candidate::score).reversed());
+        long[] postIds = new long[ranked.length];
+        long[] authorIds = new long[ranked.length];
+        for (int i = 0; i < ranked.length; i++) {
+            postIds[i] = ranked[i].postId();
+            authorIds[i] = ranked[i].authorId();
+        }
+
+        ExploreSnapshot next = new ExploreSnapshot(versions.incrementAndGet(), postIds, authorIds);
+        snapshots = new Snapshots(next, snapshots.current());
+        sample.stop(rankTimer);
+    }
+
+    /**
+     * Điểm tương tác giảm dần theo tuổi bài: (like + 2 * comment + 1) / (số giờ + 2)^gravity.
+     * Số đếm lấy cả phần CounterService chưa flush.
+     */
+    private double score(ExploreCandidateView row, LocalDateTime now) {
+        int likes = counterService.current(CounterType.POST_LIKES, row.getId(), row.getLikeCount());
+        int comments = counterService.current(CounterType.POST_COMMENTS, row.getId(), row.getCommentCount());
+        double ageHours = Math.max(0, Duration.between(row.getCreatedAt(), now).toMinutes() / 60.0);
+        return (likes + 2.0 * comments + 1) / Math.pow(ageHours + 2, gravity);
+    }
+
+    private UserPrincipal currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal userPrincipal)) {
+            throw new RuntimeException("Không thể xác định người dùng hiện tại");
+        }
+        return userPrincipal;
+    }
+
+    private record Candidate(long postId, long authorId, double score) {
+    }
+
+    // postIds[i] (tác giả authorIds[i]) xếp theo điểm giảm dần; không sửa mảng sau khi tạo
+    private record ExploreSnapshot(long version, long[] postIds, long[] authorIds) {
+        static final ExploreSnapshot EMPTY = new ExploreSnapshot(0, new long[0], new long[0]);
+    }
+
+    private record Snapshots(ExploreSnapshot current, ExploreSnapshot previous) {
+        // Con trỏ của snapshot quá cũ đọc tiếp trên snapshot hiện tại từ cùng vị trí
+        ExploreSnapshot find(long version) {
+            return previous.version() == version ? previous : current;
+        }
+    }
+}
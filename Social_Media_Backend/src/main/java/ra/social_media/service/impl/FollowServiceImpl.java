@@ -0,0 +1,81 @@
+package ra.social_media.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import ra.social_media.exception.HttpForbidden;
+import ra.social_media.exception.HttpNotFound;
+import ra.social_media.model.dto.projection.KeysetView;
+import ra.social_media.model.dto.response.CursorPageResponse;
+import ra.social_media.model.dto.response.ProfileCardResponse;
+import ra.social_media.repository.FollowRepository;
+import ra.social_media.security.principal.UserPrincipal;
+import ra.social_media.service.FollowService;
+import ra.social_media.utils.CursorCodec;
+
+import java.util.List;
+
+@Service
+public class FollowServiceImpl implements FollowService {
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private ProfileCardLoader profileCardLoader;
+
+    @Value("${page_max:50}")
+    private int pageMax;
+
+    @Override
+    public CursorPageResponse<ProfileCardResponse> getFollowers(Long userId, String cursor, int limit) {
+        ensureCanView(currentUser().getId(), userId);
+        CursorCodec.Cursor position = CursorCodec.decode(cursor);
+        int size = Math.max(1, Math.min(limit, pageMax));
+        return toPage(followRepository.findFollowersPage(userId, position.createdAtTime(), position.id(), Pageable.ofSize(size)), size);
+    }
+
+    @Override
+    public CursorPageResponse<ProfileCardResponse> getFollowing(Long userId, String cursor, int limit) {
+        ensureCanView(currentUser().getId(), userId);
+        CursorCodec.Cursor position = CursorCodec.decode(cursor);
+        int size = Math.max(1, Math.min(limit, pageMax));
+        return toPage(followRepository.findFollowingPage(userId, position.createdAtTime(), position.id(), Pageable.ofSize(size)), size);
+    }
+
+    @Override
+    public void ensureCanView(Long viewerId, Long ownerId) {
+        if (ownerId.equals(viewerId)) {
+            return;
+        }
+        List<ProfileCardResponse> owner = profileCardLoader.load(List.of(ownerId));
+        if (owner.isEmpty()) {
+            throw new HttpNotFound("Không tìm thấy người dùng");
+        }
+        if (owner.get(0).isPrivate() && !followRepository.isFollowing(viewerId, ownerId)) {
+            throw new HttpForbidden("Tài khoản này ở chế độ riêng tư");
+        }
+    }
+
+    private CursorPageResponse<ProfileCardResponse> toPage(List<KeysetView> rows, int size) {
+        List<ProfileCardResponse> items = profileCardLoader.load(rows.stream().map(KeysetView::getId).toList());
+        String nextCursor = null;
+        // Con trỏ lấy từ dòng follow cuối cùng, kể cả khi profile của dòng đó không còn
+        if (rows.size() == size) {
+            KeysetView last = rows.get(rows.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPageResponse<>(items, nextCursor);
+    }
+
+    private UserPrincipal currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal userPrincipal)) {
+            throw new RuntimeException("Không thể xác định người dùng hiện tại");
+        }
+        return userPrincipal;
+    }
+}
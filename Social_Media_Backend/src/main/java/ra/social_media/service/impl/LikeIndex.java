@@ -0,0 +1,198 @@
+package ra.social_media.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ra.social_media.model.dto.projection.PostLikerView;
+import ra.social_media.repository.LikeRepository;
+import ra.social_media.utils.ExpiringCache;
+import ra.social_media.utils.RoaringBitmap;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Bitmap id người đã like theo từng bài, để trả likedByMe cho cả trang feed mà không chạm DB.
+ * Bài được nạp lần đầu khi xuất hiện trong một trang (một câu query cho mọi bài còn thiếu), hết hạn theo TTL.
+ * Like/unlike ghi DB rồi cập nhật bitmap dưới cùng một khoá theo (bài, user), nên like và unlike gửi song song
+ * được áp vào bitmap đúng thứ tự commit; thao tác đến trong lúc bài đang nạp được ghi
+ * vào hàng chờ và áp lại sau khi nạp xong nên không bị mất.
+ */
+@Component
+public class LikeIndex {
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static final int LOCK_STRIPES = 256;
+
+    private final ExpiringCache<Long, PostLikes> index;
+    private final Object[] toggleLocks = new Object[LOCK_STRIPES];
+    // Bài đang được nạp, để like/unlike song song biết mà ghi vào hàng chờ
+    private final ConcurrentHashMap<Long, PostLikes> loading = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter loads;
+    private final Counter fallbacks;
+
+    public LikeIndex(@Value("${like_index_size:20000}") int maxPosts,
+                     @Value("${like_index_ttl:1800000}") long ttlMillis,
+                     MeterRegistry meterRegistry) {
+        this.index = new ExpiringCache<>(maxPosts, ttlMillis);
+        for (int i = 0; i < toggleLocks.length; i++) {
+            toggleLocks[i] = new Object();
+        }
+        this.hits = Counter.builder("like.index.requests").tag("result", "hit").register(meterRegistry);
+        this.loads = Counter.builder("like.index.requests").tag("result", "load").register(meterRegistry);
+        this.fallbacks = Counter.builder("like.index.requests").tag("result", "fallback").register(meterRegistry);
+        Gauge.builder("like.index.posts", index, c -> c.size()).register(meterRegistry);
+    }
+
+    /**
+     * Các bài trong postIds mà userId đã like.
+     */
+    public Set<Long> likedBy(Long userId, Collection<Long> postIds) {
+        Set<Long> liked = new HashSet<>();
+        if (postIds.isEmpty()) {
+            return liked;
+        }
+        if (!RoaringBitmap.fits(userId)) {
+            liked.addAll(likeRepository.findLikedPostIds(userId, postIds));
+            return liked;
+        }
+
+        Map<Long, PostLikes> claimed = new HashMap<>();
+        List<Long> fallback = new ArrayList<>();
+        for (Long postId : new LinkedHashSet<>(postIds)) {
+            PostLikes likes = index.get(postId);
+            if (likes != null) {
+                hits.increment();
+                if (likes.contains(userId)) {
+                    liked.add(postId);
+                }
+                continue;
+            }
+            PostLikes placeholder = new PostLikes();
+            if (loading.putIfAbsent(postId, placeholder) == null) {
+                claimed.put(postId, placeholder);
+            } else {
+                // Request khác đang nạp bài này, hỏi thẳng DB thay vì chờ
+                fallback.add(postId);
+            }
+        }
+
+        if (!claimed.isEmpty()) {
+            load(claimed);
+            claimed.forEach((postId, likes) -> {
+                if (likes.contains(userId)) {
+                    liked.add(postId);
+                }
+            });
+        }
+        if (!fallback.isEmpty()) {
+            fallbacks.increment(fallback.size());
+            liked.addAll(likeRepository.findLikedPostIds(userId, fallback));
+        }
+        return liked;
+    }
+
+    /**
+     * Chạy write (ghi like / unlike xuống DB, trả về true nếu DB thực sự thay đổi) rồi cập nhật bitmap, cả hai dưới khoá
+     * của cặp (bài, user). write phải tự commit trước khi trả về, không gọi trong một transaction đang mở.
+     *
+     * @return kết quả của write
+     */
+    public boolean toggle(Long postId, Long userId, boolean liked, BooleanSupplier write) {
+        synchronized (toggleLocks[Math.floorMod(Objects.hash(postId, userId), toggleLocks.length)]) {
+            if (!write.getAsBoolean()) {
+                return false;
+            }
+            apply(postId, userId, liked);
+            return true;
+        }
+    }
+
+    private void apply(Long postId, Long userId, boolean liked) {
+        if (!RoaringBitmap.fits(userId)) {
+            return;
+        }
+        // Xem loading trước: bài nạp xong được đưa vào index rồi mới rời loading, nên luôn thấy ở một trong hai nơi
+        PostLikes likes = loading.get(postId);
+        if (likes == null) {
+            likes = index.peek(postId);
+        }
+        if (likes != null) {
+            likes.apply(userId, liked);
+        }
+    }
+
+    private void load(Map<Long, PostLikes> claimed) {
+        loads.increment(claimed.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<PostLikerView> rows = likeRepository.streamLikersByPostIdIn(claimed.keySet())) {
+                    rows.forEach(row -> {
+                        if (RoaringBitmap.fits(row.getUserId())) {
+                            claimed.get(row.getPostId()).loadRow(row.getUserId());
+                        }
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            claimed.forEach(loading::remove);
+            throw e;
+        }
+        claimed.forEach((postId, likes) -> {
+            likes.finishLoading();
+            index.put(postId, likes);
+            loading.remove(postId, likes);
+        });
+    }
+
+    private static final class PostLikes {
+        private final RoaringBitmap likers = new RoaringBitmap();
+        // Cặp [userId, 1 = like / 0 = unlike] đến trong lúc nạp; null khi đã nạp xong
+        private List<long[]> pending = new ArrayList<>();
+
+        // Chỉ thread nạp gọi, trước finishLoading(); apply() lúc này không đụng tới likers
+        void loadRow(long userId) {
+            likers.add(userId);
+        }
+
+        synchronized void finishLoading() {
+            for (long[] op : pending) {
+                set(op[0], op[1] == 1);
+            }
+            pending = null;
+        }
+
+        synchronized void apply(long userId, boolean liked) {
+            if (pending != null) {
+                pending.add(new long[]{userId, liked ? 1 : 0});
+            } else {
+                set(userId, liked);
+            }
+        }
+
+        synchronized boolean contains(long userId) {
+            return likers.contains(userId);
+        }
+
+        private void set(long userId, boolean liked) {
+            if (liked) {
+                likers.add(userId);
+            } else {
+                likers.remove(userId);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ra.social_media.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import ra.social_media.service.MediaStorage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.regex.Pattern;
+
+/**
+ * Lưu media trên ổ đĩa của server theo địa chỉ nội dung: tên file là SHA-256 của nội dung,
+ * chia thư mục theo 2 byte đầu (ab/cd/abcd...jpg). Cùng một nội dung chỉ được lưu một lần
+ * và URL không bao giờ đổi nội dung nên client có thể cache vĩnh viễn.
+ */
+@Service
+@ConditionalOnProperty(name = "media_storage", havingValue = "local")
+public class LocalMediaStorage implements MediaStorage {
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,5})?");
+
+    private final Path root;
+    private final Path tmpDir;
+    private final String baseUrl;
+
+    public LocalMediaStorage(@Value("${media_local_dir:${java.io.tmpdir}/social_media/media}") String root,
+                             @Value("${media_local_base_url:/api/v1/media}") String baseUrl) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tmpDir = this.root.resolve(".tmp");
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        Files.createDirectories(this.tmpDir);
+    }
+
+    @Override
+    public String store(Path file, String folder, String contentType) throws IOException {
+        return store(file, MediaSpool.sha256Of(file), folder, contentType);
+    }
+
+    @Override
+    public String store(Path file, String sha256, String folder, String contentType) throws IOException {
+        String name = sha256 + extensionOf(contentType);
+        Path target = pathOf(name);
+
+        if (Files.exists(target)) {
+            // Nội dung đã có sẵn, chỉ cần bỏ file mới
+            Files.deleteIfExists(file);
+        } else {
+            Files.createDirectories(target.getParent());
+            moveIntoPlace(file, target);
+        }
+        return baseUrl + "/" + name;
+    }
+
+    @Override
+    public void delete(String url) throws IOException {
+        if (url == null || !url.startsWith(baseUrl + "/")) {
+            return;
+        }
+        Path target = resolve(url.substring(baseUrl.length() + 1));
+        if (target != null) {
+            Files.deleteIfExists(target);
+        }
+    }
+
+    /**
+     * Trả về đường dẫn file ứng với tên trong URL, hoặc null nếu tên không hợp lệ / không tồn tại.
+     */
+    public Path resolve(String name) {
+        if (name == null || !NAME_PATTERN.matcher(name).matches()) {
+            return null;
+        }
+        Path path = pathOf(name);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    public static String contentTypeOf(String name) {
+        int dot = name.lastIndexOf('.');
+        String extension = dot < 0 ? "" : name.substring(dot + 1);
+        return switch (extension) {
+            case "jpg" -> "image/jpeg";
+            case "png" -> "image/png";
+            case "gif" -> "image/gif";
+            case "webp" -> "image/webp";
+            case "mp4" -> "video/mp4";
+            case "mov" -> "video/quicktime";
+            case "webm" -> "video/webm";
+            default -> "application/octet-stream";
+        };
+    }
+
+    private Path pathOf(String name) {
+        return root.resolve(name.substring(0, 2)).resolve(name.substring(2, 4)).resolve(name);
+    }
+
+    // Cùng filesystem thì rename nguyên tử; khác filesystem thì copy bằng FileChannel vào file tạm rồi rename,
+    // để không bao giờ có file dở dang mang tên hash
+    private void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            return;
+        } catch (AtomicMoveNotSupportedException | FileAlreadyExistsException e) {
+            if (Files.exists(target)) {
+                Files.deleteIfExists(source);
+                return;
+            }
+        }
+
+        Path staging = Files.createTempFile(tmpDir, "store-", ".part");
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(staging, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+            out.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(staging);
+            throw e;
+        }
+        try {
+            Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+        Files.deleteIfExists(source);
+    }
+
+    private static String extensionOf(String contentType) {
+        if (contentType == null) {
+            return "";
+        }
+        return switch (contentType) {
+            case "image/jpeg" -> ".jpg";
+            case "image/png" -> ".png";
+            case "image/gif" -> ".gif";
+            case "image/webp" -> ".webp";
+            case "video/mp4" -> ".mp4";
+            case "video/quicktime" -> ".mov";
+            case "video/webm" -> ".webm";
+            default -> "";
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package ra.social_media.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import ra.social_media.exception.HttpBadRequest;
+import ra.social_media.exception.HttpForbidden;
+import ra.social_media.exception.HttpNotFound;
+import ra.social_media.model.dto.response.MediaResponse;
+import ra.social_media.model.entity.Media;
+import ra.social_media.model.entity.Post;
+import ra.social_media.repository.MediaRepository;
+import ra.social_media.repository.PostRepository;
+import ra.social_media.security.principal.UserPrincipal;
+import ra.social_media.service.MediaService;
+import ra.social_media.utils.MediaType;
+
+import java.io.IOException;
+
+@Service
+public class MediaServiceImpl implements MediaService {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private MediaRepository mediaRepository;
+
+    @Autowired
+    private MediaSpool mediaSpool;
+
+    @Autowired
+    private ImageDerivativeProcessor imageDerivativeProcessor;
+
+    @Override
+    public MediaResponse addImageToPost(Long postId, MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new HttpBadRequest("File ảnh không được để trống");
+        }
+
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new HttpNotFound("Bài viết không tồn tại"));
+        if (!post.getAuthorId().equals(currentUser().getId())) {
+            throw new HttpForbidden("Bạn không có quyền thêm ảnh vào bài viết này");
+        }
+
+        ImageDerivativeProcessor.ImageDerivatives derivatives;
+        try {
+            MediaSpool.SpooledFile spooled = mediaSpool.spool(file, "post");
+            derivatives = imageDerivativeProcessor.process(spooled.path());
+        } catch (IOException e) {
+            throw new RuntimeException("Lỗi xử lý ảnh: " + e.getMessage());
+        }
+
+        Media media = new Media();
+        media.setPostId(postId);
+        media.setMediaType(MediaType.IMAGE);
+        media.setUrl(derivatives.fullUrl());
+        media.setThumbnailUrl(derivatives.thumbnailUrl());
+        media.setFeedUrl(derivatives.feedUrl());
+        media.setWidth(derivatives.width());
+        media.setHeight(derivatives.height());
+        try {
+            media.setOrderInPost(mediaRepository.countByPostId(postId));
+            mediaRepository.save(media);
+        } catch (RuntimeException e) {
+            imageDerivativeProcessor.release(derivatives);
+            throw e;
+        }
+
+        return toResponse(media);
+    }
+
+    static MediaResponse toResponse(Media media) {
+        return MediaResponse.builder()
+                .id(media.getId())
+                .postId(media.getPostId())
+                .mediaType(media.getMediaType())
+                .url(media.getUrl())
+                .thumbnailUrl(media.getThumbnailUrl())
+                .feedUrl(media.getFeedUrl())
+                .width(media.getWidth())
+                .height(media.getHeight())
+                .durationMs(media.getDurationMs())
+                .orderInPost(media.getOrderInPost())
+                .build();
+    }
+
+    private UserPrincipal currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal userPrincipal)) {
+            throw new RuntimeException("Không thể xác định người dùng hiện tại");
+        }
+        return userPrincipal;
+    }
+}
@@ -0,0 +1,96 @@
+package ra.social_media.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+/**
+ * Thư mục tạm cho file upload. Nên đặt cùng filesystem với media_local_dir để LocalMediaStorage chỉ cần rename.
+ */
+@Component
+public class MediaSpool {
+
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+
+    private final Path spoolDir;
+
+    public MediaSpool(@Value("${media_spool_dir:${java.io.tmpdir}/social_media/spool}") String spoolDir) throws IOException {
+        this.spoolDir = Paths.get(spoolDir).toAbsolutePath().normalize();
+        Files.createDirectories(this.spoolDir);
+    }
+
+    public record SpooledFile(Path path, String sha256, long size) {
+    }
+
+    /**
+     * Ghi multipart ra file tạm theo từng block, không đọc toàn bộ file vào heap.
+     * SHA-256 được tính ngay trong lúc ghi nên không phải đọc lại file.
+     */
+    public SpooledFile spool(MultipartFile file, String prefix) throws IOException {
+        Path target = newFile(prefix);
+        MessageDigest digest = newDigest();
+        long size;
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            size = Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        return new SpooledFile(target, HexFormat.of().formatHex(digest.digest()), size);
+    }
+
+    public Path newFile(String prefix) throws IOException {
+        return Files.createTempFile(spoolDir, prefix + "-", ".upload");
+    }
+
+    /**
+     * Xoá mọi file tạm có prefix (file còn sót lại của lần chạy trước), trả về số file đã xoá.
+     */
+    public int purge(String prefix) throws IOException {
+        int deleted = 0;
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().startsWith(prefix + "-") && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    public static String sha256Of(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(DIGEST_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
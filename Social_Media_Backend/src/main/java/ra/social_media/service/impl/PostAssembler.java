@@ -0,0 +1,89 @@
+package ra.social_media.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ra.social_media.model.dto.response.MediaResponse;
+import ra.social_media.model.dto.response.PostResponse;
+import ra.social_media.model.dto.response.ProfileCardResponse;
+import ra.social_media.model.entity.Media;
+import ra.social_media.model.entity.Post;
+import ra.social_media.repository.MediaRepository;
+import ra.social_media.repository.PostRepository;
+import ra.social_media.service.CounterService;
+import ra.social_media.utils.CounterType;
+
+import java.util.*;
+
+/**
+ * Dựng PostResponse cho một danh sách id bài viết với số query cố định:
+ * một câu cho posts, một câu cho media, thẻ tác giả lấy qua ProfileCardLoader (có cache),
+ * likedByMe lấy qua LikeIndex.
+ */
+@Component
+public class PostAssembler {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private MediaRepository mediaRepository;
+
+    @Autowired
+    private ProfileCardLoader profileCardLoader;
+
+    @Autowired
+    private CounterService counterService;
+
+    @Autowired
+    private LikeIndex likeIndex;
+
+    /**
+     * Giữ nguyên thứ tự ids, bỏ qua id không còn tồn tại.
+     */
+    public List<PostResponse> assemble(List<Long> ids, Long viewerId) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Post> posts = new HashMap<>();
+        for (Post post : postRepository.findAllById(ids)) {
+            posts.put(post.getId(), post);
+        }
+        return assemblePosts(ids.stream().map(posts::get).filter(Objects::nonNull).toList(), viewerId);
+    }
+
+    public List<PostResponse> assemblePosts(List<Post> posts, Long viewerId) {
+        if (posts.isEmpty()) {
+            return List.of();
+        }
+        List<Long> postIds = posts.stream().map(Post::getId).toList();
+
+        Map<Long, List<MediaResponse>> media = new HashMap<>();
+        for (Media item : mediaRepository.findByPostIdInOrderByPostIdAscOrderInPostAsc(postIds)) {
+            media.computeIfAbsent(item.getPostId(), k -> new ArrayList<>()).add(MediaServiceImpl.toResponse(item));
+        }
+
+        Map<Long, ProfileCardResponse> authors = new HashMap<>();
+        for (ProfileCardResponse card : profileCardLoader.load(new LinkedHashSet<>(posts.stream().map(Post::getAuthorId).toList()))) {
+            authors.put(card.getUserId(), card);
+        }
+
+        Set<Long> liked = likeIndex.likedBy(viewerId, postIds);
+
+        List<PostResponse> result = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            result.add(PostResponse.builder()
+                    .id(post.getId())
+                    .author(authors.get(post.getAuthorId()))
+                    .caption(post.getCaption())
+                    .location(post.getLocation())
+                    .visibility(post.getVisibility())
+                    .likeCount(counterService.current(CounterType.POST_LIKES, post.getId(), post.getLikeCount()))
+                    .commentCount(counterService.current(CounterType.POST_COMMENTS, post.getId(), post.getCommentCount()))
+                    .likedByMe(liked.contains(post.getId()))
+                    .media(media.getOrDefault(post.getId(), List.of()))
+                    .createdAt(post.getCreatedAt())
+                    .build());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,197 @@
+package ra.social_media.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ra.social_media.exception.HttpForbidden;
+import ra.social_media.exception.HttpNotFound;
+import ra.social_media.model.dto.projection.KeysetView;
+import ra.social_media.model.dto.projection.PostTimelineView;
+import ra.social_media.model.dto.request.PostRequest;
+import ra.social_media.model.dto.response.CursorPageResponse;
+import ra.social_media.model.dto.response.LikeResponse;
+import ra.social_media.model.dto.response.PostResponse;
+import ra.social_media.model.entity.Post;
+import ra.social_media.repository.LikeRepository;
+import ra.social_media.repository.PostRepository;
+import ra.social_media.repository.SavedPostRepository;
+import ra.social_media.security.principal.UserPrincipal;
+import ra.social_media.service.CounterService;
+import ra.social_media.service.FollowService;
+import ra.social_media.service.PostService;
+import ra.social_media.service.TimelineService;
+import ra.social_media.utils.CounterType;
+import ra.social_media.utils.CursorCodec;
+import ra.social_media.utils.PostVisibility;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+
+@Service
+public class PostServiceImpl implements PostService {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostAssembler postAssembler;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private CounterService counterService;
+
+    @Autowired
+    private SavedPostRepository savedPostRepository;
+
+    @Autowired
+    private FollowService followService;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private LikeIndex likeIndex;
+
+    @Autowired
+    private PostTagWriter postTagWriter;
+
+    @Value("${feed_page_max:50}")
+    private int pageMax;
+
+    // Bài và hashtag ghi cùng một transaction; số đếm và fan-out chỉ chạy khi đã commit
+    @Override
+    @Transactional
+    public PostResponse createPost(PostRequest postRequest) {
+        UserPrincipal userPrincipal = currentUser();
+
+        Post post = new Post();
+        post.setAuthorId(userPrincipal.getId());
+        post.setCaption(postRequest.getCaption());
+        post.setLocation(postRequest.getLocation());
+        post.setVisibility(postRequest.getVisibility() == null ? PostVisibility.PUBLIC : postRequest.getVisibility());
+        postRepository.save(post);
+        postTagWriter.attach(post);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                counterService.increment(CounterType.PROFILE_POSTS, post.getAuthorId());
+                timelineService.onPostCreated(post);
+            }
+        });
+
+        return postAssembler.assemblePosts(List.of(post), userPrincipal.getId()).get(0);
+    }
+
+    @Override
+    public CursorPageResponse<PostResponse> getHomeFeed(String cursor, int limit) {
+        UserPrincipal userPrincipal = currentUser();
+        CursorCodec.Cursor position = CursorCodec.decode(cursor);
+        int size = Math.max(1, Math.min(limit, pageMax));
+
+        List<Long> ids = timelineService.homeTimeline(userPrincipal.getId(), position.createdAt(), position.id(), size);
+        List<PostResponse> items = postAssembler.assemble(ids, userPrincipal.getId());
+
+        String nextCursor = null;
+        if (ids.size() == size && !items.isEmpty()) {
+            PostResponse last = items.get(items.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPageResponse<>(items, nextCursor);
+    }
+
+    @Override
+    public CursorPageResponse<PostResponse> getUserPosts(Long userId, String cursor, int limit) {
+        UserPrincipal userPrincipal = currentUser();
+        followService.ensureCanView(userPrincipal.getId(), userId);
+        CursorCodec.Cursor position = CursorCodec.decode(cursor);
+        int size = Math.max(1, Math.min(limit, pageMax));
+
+        // Chủ trang thấy mọi bài, người khác chỉ thấy bài công khai
+        Collection<PostVisibility> visibilities = userId.equals(userPrincipal.getId())
+                ? EnumSet.allOf(PostVisibility.class)
+                : EnumSet.of(PostVisibility.PUBLIC);
+        List<PostTimelineView> rows = postRepository.findAuthorPosts(userId, visibilities,
+                position.createdAtTime(), position.id(), Pageable.ofSize(size));
+
+        String nextCursor = null;
+        if (rows.size() == size) {
+            PostTimelineView last = rows.get(rows.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPageResponse<>(postAssembler.assemble(rows.stream().map(PostTimelineView::getId).toList(), userPrincipal.getId()), nextCursor);
+    }
+
+    @Override
+    public CursorPageResponse<PostResponse> getSavedPosts(String cursor, int limit) {
+        UserPrincipal userPrincipal = currentUser();
+        CursorCodec.Cursor position = CursorCodec.decode(cursor);
+        int size = Math.max(1, Math.min(limit, pageMax));
+
+        List<KeysetView> rows = savedPostRepository.findSavedPage(userPrincipal.getId(),
+                position.createdAtTime(), position.id(), Pageable.ofSize(size));
+
+        // Con trỏ theo thời điểm lưu, không theo createdAt của bài
+        String nextCursor = null;
+        if (rows.size() == size) {
+            KeysetView last = rows.get(rows.size() - 1);
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPageResponse<>(postAssembler.assemble(rows.stream().map(KeysetView::getId).toList(), userPrincipal.getId()), nextCursor);
+    }
+
+    @Override
+    public LikeResponse likePost(Long postId) {
+        UserPrincipal userPrincipal = currentUser();
+        Post post = postRepository.findById(postId).orElseThrow(() -> new HttpNotFound("Không tìm thấy bài viết"));
+        ensureCanView(userPrincipal.getId(), post);
+
+        if (likeIndex.toggle(postId, userPrincipal.getId(), true, () -> likeRepository.insertIgnore(userPrincipal.getId(), postId,
+                LocalDateTime.now().truncatedTo(ChronoUnit.MICROS)) == 1)) {
+            counterService.increment(CounterType.POST_LIKES, postId);
+        }
+        return new LikeResponse(postId, true, counterService.current(CounterType.POST_LIKES, postId, post.getLikeCount()));
+    }
+
+    @Override
+    public LikeResponse unlikePost(Long postId) {
+        UserPrincipal userPrincipal = currentUser();
+        // Không kiểm tra quyền xem: bài đã chuyển sang riêng tư vẫn cho bỏ like
+        Post post = postRepository.findById(postId).orElseThrow(() -> new HttpNotFound("Không tìm thấy bài viết"));
+
+        if (likeIndex.toggle(postId, userPrincipal.getId(), false,
+                () -> likeRepository.deleteByUserIdAndPostId(userPrincipal.getId(), postId) == 1)) {
+            counterService.decrement(CounterType.POST_LIKES, postId);
+        }
+        return new LikeResponse(postId, false, counterService.current(CounterType.POST_LIKES, postId, post.getLikeCount()));
+    }
+
+    private void ensureCanView(Long viewerId, Post post) {
+        if (post.getAuthorId().equals(viewerId)) {
+            return;
+        }
+        if (post.getVisibility() != PostVisibility.PUBLIC) {
+            throw new HttpForbidden("Bạn không có quyền xem bài viết này");
+        }
+        followService.ensureCanView(viewerId, post.getAuthorId());
+    }
+
+    private UserPrincipal currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal userPrincipal)) {
+            throw new RuntimeException("Không thể xác định người dùng hiện tại");
+        }
+        return userPrincipal;
+    }
+}
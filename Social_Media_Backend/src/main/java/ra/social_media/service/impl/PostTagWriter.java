@@ -0,0 +1,92 @@
+package ra.social_media.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ra.social_media.model.entity.Post;
+import ra.social_media.model.entity.PostTag;
+import ra.social_media.model.entity.Tag;
+import ra.social_media.repository.PostRepository;
+import ra.social_media.repository.PostTagRepository;
+import ra.social_media.repository.TagRepository;
+import ra.social_media.service.CounterService;
+import ra.social_media.utils.CounterType;
+import ra.social_media.utils.Hashtags;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Gắn hashtag trong caption vào bài: tạo tag còn thiếu, ghi post_tags, tăng Tag.postCount.
+ * Mỗi dòng post_tags được PostTagEntityListener đẩy sang bảng thịnh hành.
+ * Counter write-behind không rollback theo transaction nên chỉ tăng sau khi commit.
+ */
+@Component
+public class PostTagWriter {
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private PostTagRepository postTagRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CounterService counterService;
+
+    @Autowired
+    private SearchIndexer searchIndexer;
+
+    @Value("${post_max_hashtags:30}")
+    private int maxHashtags;
+
+    @Transactional
+    public void attach(Post post) {
+        Set<String> names = Hashtags.extract(post.getCaption(), maxHashtags);
+        if (names.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> created = new HashSet<>();
+        for (String name : names) {
+            if (tagRepository.insertIgnore(name, now) == 1) {
+                created.add(name);
+            }
+        }
+
+        Post reference = postRepository.getReferenceById(post.getId());
+        List<Tag> tags = tagRepository.findByNameIn(names);
+        List<PostTag> rows = new ArrayList<>(tags.size());
+        for (Tag tag : tags) {
+            rows.add(new PostTag(reference, tag, null));
+        }
+        postTagRepository.saveAll(rows);
+
+        List<Long> tagIds = new ArrayList<>(tags.size());
+        List<Runnable> indexTasks = new ArrayList<>();
+        for (Tag tag : tags) {
+            tagIds.add(tag.getId());
+            // Tag tạo bằng native insert không phát sự kiện entity, tự đưa sang chỉ mục tìm kiếm
+            if (created.contains(tag.getName())) {
+                indexTasks.add(searchIndexer.prepare(tag, false));
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Long tagId : tagIds) {
+                    counterService.increment(CounterType.TAG_POSTS, tagId);
+                }
+                indexTasks.forEach(Runnable::run);
+            }
+        });
+    }
+}
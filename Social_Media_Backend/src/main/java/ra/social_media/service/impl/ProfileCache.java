@@ -0,0 +1,136 @@
+package ra.social_media.service.impl;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ra.social_media.model.dto.response.ProfileCardResponse;
+import ra.social_media.model.dto.response.ProfileResponse;
+import ra.social_media.model.dto.response.ProfileSnapshot;
+import ra.social_media.utils.ExpiringCache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache ProfileResponse theo user id kèm ETag, để GET profile có thể trả 304 mà không chạm DB.
+ * Giá trị đọc từ DB lúc cache miss chỉ được ghi nếu không có thay đổi nào (put / evict) xảy ra sau stamp lấy
+ * trước khi đọc, giống PrincipalCache: nếu không, bản cũ đọc trước một lần cập nhật có thể đè lên sau khi cập nhật commit.
+ */
+@Component
+public class ProfileCache {
+
+    private final ExpiringCache<Long, ProfileSnapshot> profiles;
+    // Thẻ profile rút gọn (tên, avatar) của người khác, dùng cho feed / comment / danh sách follow
+    private final ExpiringCache<Long, ProfileCardResponse> cards;
+    private final AtomicLong changes = new AtomicLong();
+
+    public ProfileCache(@Value("${profile_cache_size:10000}") int maxSize,
+                        @Value("${profile_cache_ttl:600000}") long ttlMillis,
+                        @Value("${profile_card_cache_size:100000}") int cardMaxSize,
+                        MeterRegistry meterRegistry) {
+        this.profiles = new ExpiringCache<>(maxSize, ttlMillis);
+        this.cards = new ExpiringCache<>(cardMaxSize, ttlMillis);
+
+        FunctionCounter.builder("profile.cache.requests", profiles, c -> c.hitCount())
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("profile.cache.requests", profiles, c -> c.missCount())
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("profile.cache.size", profiles, c -> c.size())
+                .register(meterRegistry);
+
+        FunctionCounter.builder("profile.card.cache.requests", cards, c -> c.hitCount())
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("profile.card.cache.requests", cards, c -> c.missCount())
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("profile.card.cache.size", cards, c -> c.size())
+                .register(meterRegistry);
+    }
+
+    public ProfileSnapshot get(Long userId) {
+        return profiles.get(userId);
+    }
+
+    /**
+     * Mốc để truyền lại cho putIfUnchanged / putCard: lấy trước khi đọc DB.
+     */
+    public long stamp() {
+        return changes.get();
+    }
+
+    /**
+     * Ghi bản vừa cập nhật (sau commit): luôn ghi và làm các lần nạp đang dở bị bỏ qua.
+     */
+    public ProfileSnapshot put(Long userId, ProfileResponse profile) {
+        changes.incrementAndGet();
+        ProfileSnapshot snapshot = new ProfileSnapshot(profile, etagOf(profile));
+        profiles.put(userId, snapshot);
+        cards.invalidate(userId);
+        return snapshot;
+    }
+
+    /**
+     * Ghi bản vừa đọc từ DB lúc cache miss, bỏ qua nếu có thay đổi sau stamp. Luôn trả về snapshot để trả cho client.
+     */
+    public ProfileSnapshot putIfUnchanged(Long userId, ProfileResponse profile, long stamp) {
+        ProfileSnapshot snapshot = new ProfileSnapshot(profile, etagOf(profile));
+        if (changes.get() != stamp) {
+            return snapshot;
+        }
+        profiles.put(userId, snapshot);
+        // Thay đổi chen vào giữa lúc kiểm tra và lúc ghi
+        if (changes.get() != stamp) {
+            profiles.invalidate(userId);
+        }
+        return snapshot;
+    }
+
+    public void evict(Long userId) {
+        changes.incrementAndGet();
+        profiles.invalidate(userId);
+        cards.invalidate(userId);
+    }
+
+    public ProfileCardResponse getCard(Long userId) {
+        return cards.get(userId);
+    }
+
+    public void putCard(ProfileCardResponse card, long stamp) {
+        if (changes.get() != stamp) {
+            return;
+        }
+        cards.put(card.getUserId(), card);
+        if (changes.get() != stamp) {
+            cards.invalidate(card.getUserId());
+        }
+    }
+
+    // ETag chỉ phụ thuộc nội dung nên giữ nguyên qua các lần restart / nhiều instance
+    private static String etagOf(ProfileResponse profile) {
+        String canonical = String.join("\u0000",
+                String.valueOf(profile.getDisplayName()),
+                String.valueOf(profile.getBio()),
+                String.valueOf(profile.getWebsite()),
+                String.valueOf(profile.getLocation()),
+                String.valueOf(profile.getAvatarUrl()),
+                String.valueOf(profile.getAvatarStatus()),
+                String.valueOf(profile.isPrivate()),
+                String.valueOf(profile.getFollowersCount()),
+                String.valueOf(profile.getFollowingCount()),
+                String.valueOf(profile.getPostsCount()));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package ra.social_media.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ra.social_media.model.dto.projection.ProfileCardView;
+import ra.social_media.model.dto.response.ProfileCardResponse;
+import ra.social_media.repository.ProfileRepository;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lấy thẻ profile cho nhiều user: cache theo từng id, phần còn thiếu gom vào một câu IN duy nhất.
+ * Nếu id đang được một request khác tải thì chờ kết quả đó thay vì query lại.
+ */
+@Component
+public class ProfileCardLoader {
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private ProfileCache profileCache;
+
+    private final ConcurrentHashMap<Long, CompletableFuture<ProfileCardResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter coalesced;
+
+    public ProfileCardLoader(MeterRegistry meterRegistry) {
+        this.coalesced = Counter.builder("profile.card.coalesced").register(meterRegistry);
+    }
+
+    /**
+     * Trả về thẻ theo đúng thứ tự ids (đã bỏ trùng), id không tồn tại bị bỏ qua.
+     */
+    public List<ProfileCardResponse> load(Collection<Long> ids) {
+        Map<Long, ProfileCardResponse> found = new HashMap<>();
+        Map<Long, CompletableFuture<ProfileCardResponse>> owned = new HashMap<>();
+        Map<Long, CompletableFuture<ProfileCardResponse>> waiting = new HashMap<>();
+
+        for (Long id : ids) {
+            ProfileCardResponse cached = profileCache.getCard(id);
+            if (cached != null) {
+                found.put(id, cached);
+                continue;
+            }
+            CompletableFuture<ProfileCardResponse> mine = new CompletableFuture<>();
+            CompletableFuture<ProfileCardResponse> existing = inFlight.putIfAbsent(id, mine);
+            if (existing == null) {
+                owned.put(id, mine);
+            } else {
+                waiting.put(id, existing);
+                coalesced.increment();
+            }
+        }
+
+        if (!owned.isEmpty()) {
+            fetch(owned);
+        }
+        owned.forEach((id, future) -> found.put(id, future.join()));
+        waiting.forEach((id, future) -> {
+            try {
+                found.put(id, future.join());
+            } catch (CompletionException e) {
+                // Request sở hữu lượt tải bị lỗi, tự tải lại riêng id này
+                found.put(id, fetchOne(id));
+            }
+        });
+
+        List<ProfileCardResponse> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProfileCardResponse card = found.get(id);
+            if (card != null) {
+                result.add(card);
+            }
+        }
+        return result;
+    }
+
+    private void fetch(Map<Long, CompletableFuture<ProfileCardResponse>> owned) {
+        try {
+            Map<Long, ProfileCardResponse> loaded = new HashMap<>();
+            long stamp = profileCache.stamp();
+            for (ProfileCardView view : profileRepository.findCardsByIdIn(owned.keySet())) {
+                ProfileCardResponse card = toCard(view);
+                profileCache.putCard(card, stamp);
+                loaded.put(card.getUserId(), card);
+            }
+            owned.forEach((id, future) -> future.complete(loaded.get(id)));
+        } catch (RuntimeException e) {
+            owned.values().forEach(future -> future.completeExceptionally(e));
+            throw e;
+        } finally {
+            owned.forEach(inFlight::remove);
+        }
+    }
+
+    private ProfileCardResponse fetchOne(Long id) {
+        List<ProfileCardView> views = profileRepository.findCardsByIdIn(List.of(id));
+        return views.isEmpty() ? null : toCard(views.get(0));
+    }
+
+    private static ProfileCardResponse toCard(ProfileCardView view) {
+        return ProfileCardResponse.builder()
+                .userId(view.getId())
+                .displayName(view.getDisplayName())
+                .avatarUrl(view.getAvatarUrl())
+                .isPrivate(view.getIsPrivate())
+                .build();
+    }
+}
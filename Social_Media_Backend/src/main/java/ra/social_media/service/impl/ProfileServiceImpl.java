@@ -1,17 +1,31 @@
 package ra.social_media.service.impl;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ra.social_media.exception.HttpBadRequest;
 import ra.social_media.model.dto.request.ProfileRequest;
+import ra.social_media.model.dto.response.ProfileCardResponse;
 import ra.social_media.model.dto.response.ProfileResponse;
+import ra.social_media.model.dto.response.ProfileSnapshot;
 import ra.social_media.model.entity.Profile;
-import ra.social_media.model.entity.User;
 import ra.social_media.repository.ProfileRepository;
-import ra.social_media.repository.UserRepository;
 import ra.social_media.security.principal.UserPrincipal;
+import ra.social_media.service.CounterService;
 import ra.social_media.service.ProfileService;
+import ra.social_media.utils.AvatarStatus;
+import ra.social_media.utils.CounterType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
 
 @Service
 public class ProfileServiceImpl implements ProfileService {
@@ -19,47 +33,67 @@ public class ProfileServiceImpl implements ProfileService {
     private ProfileRepository profileRepository;
 
     @Autowired
-    private CloudinaryService cloudinaryService;
+    private AvatarUploadPipeline avatarUploadPipeline;
+
+    @Autowired
+    private MediaSpool mediaSpool;
+
+    @Autowired
+    private ProfileCardLoader profileCardLoader;
+
+    @Autowired
+    private CounterService counterService;
+
+    @Value("${profile_card_batch_max:100}")
+    private int cardBatchMax;
+
+    @Autowired
+    private ProfileCache profileCache;
 
     @Override
     public ProfileResponse getProfile() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return getProfileSnapshot().getProfile();
+    }
 
-        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal userPrincipal)) {
-            throw new RuntimeException("Không thể xác định người dùng hiện tại");
+    @Override
+    public ProfileSnapshot getProfileSnapshot() {
+        UserPrincipal userPrincipal = currentUser();
+
+        ProfileSnapshot cached = profileCache.get(userPrincipal.getId());
+        if (cached != null) {
+            return cached;
         }
 
-        Profile profile = profileRepository.findByUser_Username(userPrincipal.getUsername())
+        long stamp = profileCache.stamp();
+        Profile profile = profileRepository.findById(userPrincipal.getId())
                 .orElseThrow(() -> new RuntimeException("Người dùng không tồn tại"));
 
-        return ProfileResponse.builder()
-                .displayName(profile.getDisplayName())
-                .bio(profile.getBio())
-                .website(profile.getWebsite())
-                .location(profile.getLocation())
-                .avatarUrl(profile.getAvatarUrl())
-                .isPrivate(profile.isPrivate())
-                .followersCount(profile.getFollowersCount())
-                .followingCount(profile.getFollowingCount())
-                .postsCount(profile.getPostsCount())
-                .build();
+        return profileCache.putIfUnchanged(profile.getId(), toResponse(profile), stamp);
     }
 
 
 
     @Override
+    @Transactional
     public ProfileResponse updateProfile(ProfileRequest profileRequest) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal userPrincipal)) {
-            throw new RuntimeException("Không thể xác định người dùng hiện tại");
-        }
+        UserPrincipal userPrincipal = currentUser();
 
-        Profile profile = profileRepository.findByUser_Username(userPrincipal.getUsername())
+        Profile profile = profileRepository.findByIdForUpdate(userPrincipal.getId())
                 .orElseThrow(() -> new RuntimeException("Người dùng không tồn tại"));
 
+        // Ảnh chỉ được ghi ra file tạm, việc upload chạy nền; avatarUrl cũ giữ nguyên tới khi xong
+        MediaSpool.SpooledFile spooledAvatar = null;
+        String contentType = null;
         if (profileRequest.getAvatar() != null && !profileRequest.getAvatar().isEmpty()) {
-            String imageUrl = cloudinaryService.uploadImage(profileRequest.getAvatar());
-            profile.setAvatarUrl(imageUrl);
+            avatarUploadPipeline.checkCapacity();
+            try {
+                spooledAvatar = mediaSpool.spool(profileRequest.getAvatar(), "avatar");
+            } catch (IOException e) {
+                throw new RuntimeException("Lỗi lưu ảnh tạm: " + e.getMessage());
+            }
+            contentType = profileRequest.getAvatar().getContentType();
+            profile.setAvatarStatus(AvatarStatus.PENDING);
+            profile.setAvatarUploadToken(UUID.randomUUID().toString());
         }
 
         profile.setDisplayName(profileRequest.getDisplayName());
@@ -70,18 +104,72 @@ public class ProfileServiceImpl implements ProfileService {
 
         profileRepository.save(profile);
 
+        // Chỉ đưa job upload và cập nhật cache khi đã commit: rollback thì token không tồn tại, file tạm bị xoá
+        ProfileResponse response = toResponse(profile);
+        Long profileId = profile.getId();
+        String uploadToken = profile.getAvatarUploadToken();
+        MediaSpool.SpooledFile avatar = spooledAvatar;
+        String avatarContentType = contentType;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                profileCache.put(profileId, response);
+                if (avatar != null) {
+                    avatarUploadPipeline.submit(profileId, uploadToken, avatar, avatarContentType);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED && avatar != null) {
+                    try {
+                        Files.deleteIfExists(avatar.path());
+                    } catch (IOException e) {
+                        // File tạm sẽ bị dọn ở lần khởi động sau
+                    }
+                }
+            }
+        });
+        return response;
+    }
+
+    @Override
+    public List<ProfileCardResponse> getProfileCards(List<Long> userIds) {
+        LinkedHashSet<Long> ids = new LinkedHashSet<>();
+        for (Long id : userIds) {
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        if (ids.size() > cardBatchMax) {
+            throw new HttpBadRequest("Tối đa " + cardBatchMax + " user mỗi lần");
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return profileCardLoader.load(ids);
+    }
+
+    private UserPrincipal currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal userPrincipal)) {
+            throw new RuntimeException("Không thể xác định người dùng hiện tại");
+        }
+        return userPrincipal;
+    }
+
+    private ProfileResponse toResponse(Profile profile) {
         return ProfileResponse.builder()
                 .displayName(profile.getDisplayName())
                 .bio(profile.getBio())
                 .website(profile.getWebsite())
                 .location(profile.getLocation())
                 .avatarUrl(profile.getAvatarUrl())
+                .avatarStatus(profile.getAvatarStatus() == null ? AvatarStatus.READY : profile.getAvatarStatus())
                 .isPrivate(profile.isPrivate())
-                .followersCount(profile.getFollowersCount())
-                .followingCount(profile.getFollowingCount())
-                .postsCount(profile.getPostsCount())
+                .followersCount(counterService.current(CounterType.PROFILE_FOLLOWERS, profile.getId(), profile.getFollowersCount()))
+                .followingCount(counterService.current(CounterType.PROFILE_FOLLOWING, profile.getId(), profile.getFollowingCount()))
+                .postsCount(counterService.current(CounterType.PROFILE_POSTS, profile.getId(), profile.getPostsCount()))
                 .build();
     }
-
-
 }
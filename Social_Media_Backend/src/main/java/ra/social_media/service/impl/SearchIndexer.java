@@ -0,0 +1,317 @@
+package ra.social_media.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ra.social_media.model.dto.projection.PostSearchView;
+import ra.social_media.model.dto.projection.TagSearchView;
+import ra.social_media.model.dto.projection.UserSearchView;
+import ra.social_media.model.entity.Post;
+import ra.social_media.model.entity.Profile;
+import ra.social_media.model.entity.Tag;
+import ra.social_media.model.entity.User;
+import ra.social_media.repository.PostRepository;
+import ra.social_media.repository.TagRepository;
+import ra.social_media.repository.UserRepository;
+import ra.social_media.utils.InvertedIndex;
+import ra.social_media.utils.PostVisibility;
+import ra.social_media.utils.TextFolding;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Giữ ba chỉ mục tìm kiếm (bài công khai, user, tag) trong bộ nhớ.
+ * Cập nhật từng phần qua SearchEntityListener sau khi transaction commit; dựng lại toàn bộ từ MySQL
+ * lúc khởi động và định kỳ bằng query stream vào bộ chỉ mục mới rồi tráo một lần.
+ * Thay đổi đến trong lúc dựng lại được ghi vào cả hai bộ, dòng stream của tài liệu vừa thay đổi bị bỏ qua
+ * vì snapshot đọc của transaction stream có thể cũ hơn.
+ */
+@Slf4j
+@Component
+public class SearchIndexer {
+
+    // Trọng số trường: khớp username / tên hiển thị quan trọng hơn khớp trong bio
+    private static final int WEIGHT_NAME = 3;
+    private static final int WEIGHT_FULL_NAME = 2;
+    private static final int WEIGHT_TEXT = 1;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private volatile Indexes current = new Indexes();
+    private volatile Rebuild rebuild;
+    // Cập nhật giữ read lock (chạy song song), tráo bộ chỉ mục giữ write lock để không cập nhật nào lọt giữa hai bộ
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private final AtomicBoolean reindexing = new AtomicBoolean(false);
+    private final ExecutorService reindexExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-reindex");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Timer reindexTimer;
+
+    public SearchIndexer(MeterRegistry meterRegistry) {
+        this.reindexTimer = Timer.builder("search.reindex.duration").register(meterRegistry);
+        Gauge.builder("search.index.documents", this, s -> s.current.posts.size()).tag("index", "posts").register(meterRegistry);
+        Gauge.builder("search.index.documents", this, s -> s.current.users.size()).tag("index", "users").register(meterRegistry);
+        Gauge.builder("search.index.documents", this, s -> s.current.tags.size()).tag("index", "tags").register(meterRegistry);
+    }
+
+    public InvertedIndex posts() {
+        return current.posts;
+    }
+
+    public InvertedIndex users() {
+        return current.users;
+    }
+
+    public InvertedIndex tags() {
+        return current.tags;
+    }
+
+    /**
+     * Chụp giá trị các trường cần index ngay lúc entity thay đổi, trả về tác vụ để chạy sau commit.
+     * Entity không thuộc diện tìm kiếm trả về null.
+     */
+    public Runnable prepare(Object entity, boolean removed) {
+        if (entity instanceof Post post) {
+            long id = post.getId();
+            if (removed || post.getVisibility() != PostVisibility.PUBLIC) {
+                return () -> apply(Kind.POST, id, indexes -> indexes.posts.remove(id));
+            }
+            List<String> caption = TextFolding.tokenize(post.getCaption());
+            return () -> apply(Kind.POST, id, indexes -> indexes.posts.putField(id, "caption", caption, WEIGHT_TEXT));
+        }
+        if (entity instanceof User user) {
+            long id = user.getId();
+            if (removed || Boolean.FALSE.equals(user.getStatus())) {
+                // Bị khoá: gỡ cả bốn trường (kể cả tên hiển thị / bio của profile) và chặn cập nhật profile tới khi mở lại
+                return () -> applyUser(id, indexes -> {
+                    indexes.inactiveUsers.add(id);
+                    indexes.users.remove(id);
+                });
+            }
+            List<String> username = TextFolding.tokenize(user.getUsername());
+            List<String> fullName = TextFolding.tokenize(user.getFullName());
+            return () -> reactivateOrUpdate(id, username, fullName);
+        }
+        if (entity instanceof Profile profile) {
+            long id = profile.getId();
+            List<String> displayName = removed ? List.of() : TextFolding.tokenize(profile.getDisplayName());
+            List<String> bio = removed ? List.of() : TextFolding.tokenize(profile.getBio());
+            return () -> apply(Kind.PROFILE, id, indexes -> {
+                if (indexes.inactiveUsers.contains(id)) {
+                    return;
+                }
+                indexes.users.putField(id, "displayName", displayName, WEIGHT_NAME);
+                indexes.users.putField(id, "bio", bio, WEIGHT_TEXT);
+            });
+        }
+        if (entity instanceof Tag tag) {
+            long id = tag.getId();
+            List<String> name = removed ? List.of() : TextFolding.tokenize(tag.getName());
+            return () -> apply(Kind.TAG, id, indexes -> indexes.tags.putField(id, "name", name, WEIGHT_NAME));
+        }
+        return null;
+    }
+
+    private void apply(Kind kind, long id, Consumer<Indexes> update) {
+        swapLock.readLock().lock();
+        try {
+            update.accept(current);
+            Rebuild building = rebuild;
+            if (building != null) {
+                building.touched(kind).add(id);
+                update.accept(building.indexes);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // User đang bị khoá được mở lại: các trường profile đã bị gỡ nên nạp lại bản đã commit của cả user lẫn profile
+    private void reactivateOrUpdate(long id, List<String> username, List<String> fullName) {
+        Rebuild building = rebuild;
+        boolean inactive = current.inactiveUsers.contains(id) || (building != null && building.indexes.inactiveUsers.contains(id));
+        UserSearchView document = inactive ? userRepository.findSearchDocumentById(id).orElse(null) : null;
+        applyUser(id, indexes -> {
+            boolean wasInactive = indexes.inactiveUsers.remove(id);
+            indexes.users.putField(id, "username", username, WEIGHT_NAME);
+            indexes.users.putField(id, "fullName", fullName, WEIGHT_FULL_NAME);
+            if (wasInactive && document != null) {
+                indexes.users.putField(id, "displayName", TextFolding.tokenize(document.getDisplayName()), WEIGHT_NAME);
+                indexes.users.putField(id, "bio", TextFolding.tokenize(document.getBio()), WEIGHT_TEXT);
+            }
+        });
+    }
+
+    // Đổi trạng thái user chạm tới cả trường của profile: dòng stream cũ của cả hai nhóm đều phải bỏ qua
+    private void applyUser(long id, Consumer<Indexes> update) {
+        apply(Kind.USER, id, indexes -> {
+            update.accept(indexes);
+            Rebuild building = rebuild;
+            if (building != null && indexes == building.indexes) {
+                building.profiles.add(id);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        reindex();
+    }
+
+    @Scheduled(fixedDelayString = "${search_reindex_interval:21600000}", initialDelayString = "${search_reindex_interval:21600000}")
+    public void scheduledReindex() {
+        reindex();
+    }
+
+    /**
+     * Dựng lại chỉ mục trên thread riêng (không chiếm thread của @Scheduled).
+     *
+     * @return false nếu đang có một lần dựng lại chạy dở
+     */
+    public boolean reindex() {
+        if (!reindexing.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            reindexExecutor.execute(() -> {
+                try {
+                    rebuildAll();
+                } finally {
+                    reindexing.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            reindexing.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    private void rebuildAll() {
+        Timer.Sample sample = Timer.start();
+        Rebuild building = new Rebuild();
+        rebuild = building;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<PostSearchView> rows = postRepository.streamSearchDocuments(PostVisibility.PUBLIC)) {
+                    rows.forEach(row -> {
+                        if (!building.posts.contains(row.getId())) {
+                            building.indexes.posts.putField(row.getId(), "caption", TextFolding.tokenize(row.getCaption()), WEIGHT_TEXT);
+                        }
+                    });
+                }
+            });
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<UserSearchView> rows = userRepository.streamSearchDocuments()) {
+                    rows.forEach(row -> indexUserRow(building, row));
+                }
+            });
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<TagSearchView> rows = tagRepository.streamSearchDocuments()) {
+                    rows.forEach(row -> {
+                        if (!building.tags.contains(row.getId())) {
+                            building.indexes.tags.putField(row.getId(), "name", TextFolding.tokenize(row.getName()), WEIGHT_NAME);
+                        }
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            // Giữ bộ chỉ mục đang dùng, lần sau thử lại
+            rebuild = null;
+            log.error("Dựng lại chỉ mục tìm kiếm thất bại", e);
+            return;
+        }
+
+        swapLock.writeLock().lock();
+        try {
+            current = building.indexes;
+            rebuild = null;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        sample.stop(reindexTimer);
+        log.info("Đã dựng lại chỉ mục tìm kiếm: {} bài, {} user, {} tag",
+                building.indexes.posts.size(), building.indexes.users.size(), building.indexes.tags.size());
+    }
+
+    private void indexUserRow(Rebuild building, UserSearchView row) {
+        long id = row.getId();
+        boolean active = !Boolean.FALSE.equals(row.getStatus());
+        if (!active && !building.users.contains(id)) {
+            building.indexes.inactiveUsers.add(id);
+        }
+        if (!building.users.contains(id) && active) {
+            building.indexes.users.putField(id, "username", TextFolding.tokenize(row.getUsername()), WEIGHT_NAME);
+            building.indexes.users.putField(id, "fullName", TextFolding.tokenize(row.getFullName()), WEIGHT_FULL_NAME);
+        }
+        if (!building.profiles.contains(id) && active) {
+            building.indexes.users.putField(id, "displayName", TextFolding.tokenize(row.getDisplayName()), WEIGHT_NAME);
+            building.indexes.users.putField(id, "bio", TextFolding.tokenize(row.getBio()), WEIGHT_TEXT);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reindexExecutor.shutdownNow();
+    }
+
+    private enum Kind {
+        POST, USER, PROFILE, TAG
+    }
+
+    private static final class Indexes {
+        private final InvertedIndex posts = new InvertedIndex();
+        private final InvertedIndex users = new InvertedIndex();
+        private final InvertedIndex tags = new InvertedIndex();
+        // User đang bị khoá: không có trong chỉ mục users và bỏ qua cập nhật profile
+        private final Set<Long> inactiveUsers = ConcurrentHashMap.newKeySet();
+    }
+
+    // Bộ chỉ mục đang dựng cùng id đã được cập nhật trực tiếp trong lúc dựng (USER và PROFILE là hai nhóm trường riêng)
+    private static final class Rebuild {
+        private final Indexes indexes = new Indexes();
+        private final Set<Long> posts = ConcurrentHashMap.newKeySet();
+        private final Set<Long> users = ConcurrentHashMap.newKeySet();
+        private final Set<Long> profiles = ConcurrentHashMap.newKeySet();
+        private final Set<Long> tags = ConcurrentHashMap.newKeySet();
+
+        Set<Long> touched(Kind kind) {
+            return switch (kind) {
+                case POST -> posts;
+                case USER -> users;
+                case PROFILE -> profiles;
+                case TAG -> tags;
+            };
+        }
+    }
+}
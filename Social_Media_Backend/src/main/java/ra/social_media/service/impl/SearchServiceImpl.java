@@ -0,0 +1,159 @@
+package ra.social_media.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import ra.social_media.model.dto.response.CursorPageResponse;
+import ra.social_media.model.dto.response.PostResponse;
+import ra.social_media.model.dto.response.ProfileCardResponse;
+import ra.social_media.model.dto.response.TagResponse;
+import ra.social_media.model.entity.Tag;
+import ra.social_media.repository.BlockRepository;
+import ra.social_media.repository.FollowRepository;
+import ra.social_media.repository.TagRepository;
+import ra.social_media.security.principal.UserPrincipal;
+import ra.social_media.service.CounterService;
+import ra.social_media.service.SearchService;
+import ra.social_media.utils.CounterType;
+import ra.social_media.utils.CursorCodec;
+import ra.social_media.utils.InvertedIndex;
+import ra.social_media.utils.TextFolding;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Tìm kiếm trên chỉ mục trong bộ nhớ của SearchIndexer, không chạm MySQL ngoài bước nạp dữ liệu hiển thị.
+ * Câu tìm được gập dấu tiếng Việt giống lúc index nên "nguyen" khớp "Nguyễn".
+ * Con trỏ là vị trí trong danh sách kết quả đã xếp hạng; kết quả bị lọc (chặn, tài khoản riêng tư) vẫn được
+ * tính vị trí nên một trang có thể ít hơn limit.
+ */
+@Service
+public class SearchServiceImpl implements SearchService {
+
+    @Autowired
+    private SearchIndexer searchIndexer;
+
+    @Autowired
+    private PostAssembler postAssembler;
+
+    @Autowired
+    private ProfileCardLoader profileCardLoader;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private BlockRepository blockRepository;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private CounterService counterService;
+
+    @Value("${page_max:50}")
+    private int pageMax;
+
+    @Value("${search_max_results:500}")
+    private int maxResults;
+
+    @Override
+    public CursorPageResponse<PostResponse> searchPosts(String query, String cursor, int limit) {
+        UserPrincipal userPrincipal = currentUser();
+        Long viewerId = userPrincipal.getId();
+        Set<Long> hidden = hiddenUserIds(viewerId);
+        Map<Long, Boolean> following = new HashMap<>();
+
+        return page(searchIndexer.posts(), query, cursor, limit, ids -> {
+            List<PostResponse> posts = new ArrayList<>(postAssembler.assemble(ids, viewerId));
+            posts.removeIf(post -> {
+                ProfileCardResponse author = post.getAuthor();
+                if (hidden.contains(author.getUserId())) {
+                    return true;
+                }
+                // Bài công khai của tài khoản riêng tư chỉ hiện cho chính tác giả và người theo dõi
+                return author.isPrivate() && !author.getUserId().equals(viewerId)
+                        && !following.computeIfAbsent(author.getUserId(), id -> followRepository.isFollowing(viewerId, id));
+            });
+            return posts;
+        });
+    }
+
+    @Override
+    public CursorPageResponse<ProfileCardResponse> searchUsers(String query, String cursor, int limit) {
+        UserPrincipal userPrincipal = currentUser();
+        Set<Long> hidden = hiddenUserIds(userPrincipal.getId());
+
+        return page(searchIndexer.users(), query, cursor, limit, ids -> {
+            List<Long> visible = new ArrayList<>(ids);
+            visible.removeAll(hidden);
+            return profileCardLoader.load(visible);
+        });
+    }
+
+    @Override
+    public CursorPageResponse<TagResponse> searchTags(String query, String cursor, int limit) {
+        return page(searchIndexer.tags(), query, cursor, limit, ids -> {
+            Map<Long, Tag> tags = new HashMap<>();
+            tagRepository.findAllById(ids).forEach(tag -> tags.put(tag.getId(), tag));
+            List<TagResponse> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Tag tag = tags.get(id);
+                if (tag != null) {
+                    result.add(TagResponse.builder()
+                            .id(tag.getId())
+                            .name(tag.getName())
+                            .postCount(counterService.current(CounterType.TAG_POSTS, tag.getId(), tag.getPostCount()))
+                            .build());
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Lấy tối đa search_max_results kết quả xếp hạng, cắt từ vị trí con trỏ rồi để loader nạp và lọc.
+     * Loader nhận id theo thứ tự xếp hạng và phải giữ nguyên thứ tự đó.
+     */
+    private <T> CursorPageResponse<T> page(InvertedIndex index, String query, String cursor, int limit,
+                                           Function<List<Long>, List<T>> loader) {
+        int size = Math.max(1, Math.min(limit, pageMax));
+        List<String> terms = TextFolding.tokenize(query);
+        if (terms.isEmpty()) {
+            return new CursorPageResponse<>(List.of(), null);
+        }
+
+        int offset = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            offset = (int) Math.max(0, Math.min(CursorCodec.decode(cursor).id(), maxResults));
+        }
+
+        List<InvertedIndex.Hit> hits = index.search(terms, maxResults);
+        int end = Math.min(offset + size, hits.size());
+        List<Long> ids = new ArrayList<>(Math.max(0, end - offset));
+        for (int i = offset; i < end; i++) {
+            ids.add(hits.get(i).docId());
+        }
+
+        List<T> items = ids.isEmpty() ? List.of() : loader.apply(ids);
+        String nextCursor = end < hits.size() ? CursorCodec.encode(0, end) : null;
+        return new CursorPageResponse<>(items, nextCursor);
+    }
+
+    private Set<Long> hiddenUserIds(Long viewerId) {
+        Set<Long> hidden = new HashSet<>(blockRepository.findBlockedIds(viewerId));
+        hidden.addAll(blockRepository.findBlockerIds(viewerId));
+        return hidden;
+    }
+
+    private UserPrincipal currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal userPrincipal)) {
+            throw new RuntimeException("Không thể xác định người dùng hiện tại");
+        }
+        return userPrincipal;
+    }
+}
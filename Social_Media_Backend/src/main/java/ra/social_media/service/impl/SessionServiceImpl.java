@@ -0,0 +1,256 @@
+package ra.social_media.service.impl;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ra.social_media.exception.HttpUnAuthorized;
+import ra.social_media.model.entity.Session;
+import ra.social_media.repository.SessionRepository;
+import ra.social_media.security.jwt.JWTProvider;
+import ra.social_media.security.jwt.SessionRevocationList;
+import ra.social_media.security.jwt.TokenVersionRegistry;
+import ra.social_media.service.SessionService;
+import ra.social_media.utils.HierarchicalTimingWheel;
+import ra.social_media.utils.SessionStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Lưu refresh token theo session với cơ chế xoay vòng (rotation) và phát hiện dùng lại.
+ * Chỉ mục các session đang ACTIVE nằm trong bộ nhớ nên refresh không cần query DB;
+ * thay đổi được gom lại và ghi xuống bảng sessions theo lô (write-behind).
+ * Thời điểm hết hạn được theo dõi bằng timing wheel nên không phải quét bảng sessions định kỳ.
+ */
+@Service
+public class SessionServiceImpl implements SessionService {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private JWTProvider jwtProvider;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private SessionRevocationList sessionRevocationList;
+
+    @Value("${jwt_refresh}")
+    private long refreshTtlMillis;
+
+    @Value("${session_expiry_batch_size:500}")
+    private int expiryBatchSize;
+
+    private final HierarchicalTimingWheel<String> expiryWheel =
+            new HierarchicalTimingWheel<>(1000, System.currentTimeMillis());
+
+    // sessionToken (sid) -> session đang ACTIVE
+    private final ConcurrentHashMap<String, ActiveSession> activeSessions = new ConcurrentHashMap<>();
+    // Các session có thay đổi chưa ghi xuống DB, ghi đè theo sid nên nhiều lần xoay vòng chỉ tốn một lần ghi
+    private final ConcurrentHashMap<String, ActiveSession> dirtySessions = new ConcurrentHashMap<>();
+
+    @Override
+    public IssuedSession startSession(Long userId, String username) {
+        String sessionId = UUID.randomUUID().toString();
+        String refreshToken = jwtProvider.generateRefreshToken(username, sessionId);
+
+        ActiveSession session = new ActiveSession(sessionId, userId);
+        session.refreshTokenHash = hash(refreshToken);
+        session.expiresAt = LocalDateTime.now().plus(Duration.ofMillis(refreshTtlMillis));
+        session.lastActivityAt = LocalDateTime.now();
+
+        activeSessions.put(sessionId, session);
+        dirtySessions.put(sessionId, session);
+        scheduleExpiry(session);
+        return new IssuedSession(sessionId, userId, username, refreshToken);
+    }
+
+    @Override
+    public IssuedSession rotate(String refreshToken) {
+        Claims claims = jwtProvider.parseRefreshToken(refreshToken);
+        String sessionId = claims == null ? null : claims.get("sid", String.class);
+        if (sessionId == null) {
+            throw new HttpUnAuthorized("Refresh token không hợp lệ");
+        }
+
+        ActiveSession session = activeSessions.get(sessionId);
+        if (session == null) {
+            throw new HttpUnAuthorized("Phiên đăng nhập đã hết hạn hoặc bị thu hồi");
+        }
+
+        synchronized (session) {
+            if (session.status != SessionStatus.ACTIVE) {
+                throw new HttpUnAuthorized("Phiên đăng nhập đã hết hạn hoặc bị thu hồi");
+            }
+            if (!MessageDigest.isEqual(session.refreshTokenHash.getBytes(StandardCharsets.US_ASCII),
+                    hash(refreshToken).getBytes(StandardCharsets.US_ASCII))) {
+                // Token cũ bị dùng lại sau khi đã xoay vòng -> có thể đã lộ, thu hồi cả session
+                revoke(session);
+                tokenVersionRegistry.revokeAll(session.userId);
+                throw new HttpUnAuthorized("Refresh token đã được sử dụng, phiên đăng nhập đã bị thu hồi");
+            }
+
+            // Subject của token đã được verify chữ ký nên dùng trực tiếp làm username
+            String username = claims.getSubject();
+            String newRefreshToken = jwtProvider.generateRefreshToken(username, sessionId);
+            session.refreshTokenHash = hash(newRefreshToken);
+            session.expiresAt = LocalDateTime.now().plus(Duration.ofMillis(refreshTtlMillis));
+            session.lastActivityAt = LocalDateTime.now();
+            dirtySessions.put(sessionId, session);
+            // Mốc hết hạn cũ vẫn nằm trong wheel, khi tới lượt sẽ bị bỏ qua vì expiresAt đã lùi ra sau
+            scheduleExpiry(session);
+            return new IssuedSession(sessionId, session.userId, username, newRefreshToken);
+        }
+    }
+
+    private void revoke(ActiveSession session) {
+        session.status = SessionStatus.REVOKED;
+        activeSessions.remove(session.sessionId, session);
+        dirtySessions.put(session.sessionId, session);
+        sessionRevocationList.revoke(session.sessionId);
+    }
+
+    private void scheduleExpiry(ActiveSession session) {
+        long deadline = session.expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        expiryWheel.schedule(session.sessionId, deadline);
+    }
+
+    // Lấy các session tới hạn từ wheel, chuyển sang EXPIRED bằng các câu UPDATE theo lô
+    @Scheduled(fixedDelayString = "${session_expiry_interval:1000}")
+    @Transactional
+    public void expireDueSessions() {
+        sessionRevocationList.purgeExpired();
+
+        List<String> dueSessionIds = expiryWheel.advance(System.currentTimeMillis());
+        if (dueSessionIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<String> expired = new ArrayList<>();
+        for (String sessionId : dueSessionIds) {
+            ActiveSession session = activeSessions.get(sessionId);
+            if (session == null) {
+                continue;
+            }
+            synchronized (session) {
+                if (session.status != SessionStatus.ACTIVE || session.expiresAt.isAfter(now)) {
+                    continue;
+                }
+                session.status = SessionStatus.EXPIRED;
+                activeSessions.remove(sessionId, session);
+            }
+            sessionRevocationList.revoke(sessionId);
+            expired.add(sessionId);
+        }
+
+        // Session chưa kịp flush (chưa có dòng trong DB) sẽ được ghi với status EXPIRED ở lần flush tới
+        for (int from = 0; from < expired.size(); from += expiryBatchSize) {
+            sessionRepository.updateStatusBySessionTokens(SessionStatus.EXPIRED,
+                    expired.subList(from, Math.min(expired.size(), from + expiryBatchSize)));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${session_flush_interval:2000}")
+    @Transactional
+    public void flushDirtySessions() {
+        if (dirtySessions.isEmpty()) {
+            return;
+        }
+        List<ActiveSession> batch = new ArrayList<>();
+        for (String sessionId : dirtySessions.keySet()) {
+            ActiveSession session = dirtySessions.remove(sessionId);
+            if (session != null) {
+                batch.add(session);
+            }
+        }
+
+        try {
+            Map<String, Session> existing = sessionRepository.findBySessionTokenIn(
+                            batch.stream().map(s -> s.sessionId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(Session::getSessionToken, Function.identity()));
+
+            List<Session> toSave = new ArrayList<>(batch.size());
+            for (ActiveSession session : batch) {
+                Session entity = existing.get(session.sessionId);
+                if (entity == null) {
+                    entity = new Session();
+                    entity.setSessionToken(session.sessionId);
+                    entity.setUserId(session.userId);
+                }
+                synchronized (session) {
+                    entity.setRefreshToken(session.refreshTokenHash);
+                    entity.setStatus(session.status);
+                    entity.setExpiresAt(session.expiresAt);
+                    entity.setLastActivityAt(session.lastActivityAt);
+                }
+                toSave.add(entity);
+            }
+            sessionRepository.saveAll(toSave);
+        } catch (RuntimeException e) {
+            // Ghi lỗi -> đưa lại vào hàng đợi, lần flush sau thử tiếp (không ghi đè thay đổi mới hơn)
+            batch.forEach(session -> dirtySessions.putIfAbsent(session.sessionId, session));
+            throw e;
+        }
+    }
+
+    // Nạp lại các session còn hiệu lực khi khởi động để refresh token cũ vẫn dùng được sau restart
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void loadActiveSessions() {
+        // Những session hết hạn trong lúc server tắt: một lần UPDATE dùng index (status, expires_at)
+        sessionRepository.updateStatusWhereExpired(SessionStatus.ACTIVE, SessionStatus.EXPIRED, LocalDateTime.now());
+
+        try (Stream<Session> sessions = sessionRepository.streamByStatusAndExpiresAtAfter(
+                SessionStatus.ACTIVE, LocalDateTime.now())) {
+            sessions.forEach(entity -> {
+                ActiveSession session = new ActiveSession(entity.getSessionToken(), entity.getUserId());
+                session.refreshTokenHash = entity.getRefreshToken();
+                session.expiresAt = entity.getExpiresAt();
+                session.lastActivityAt = entity.getLastActivityAt();
+                if (activeSessions.putIfAbsent(session.sessionId, session) == null) {
+                    scheduleExpiry(session);
+                }
+            });
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class ActiveSession {
+        private final String sessionId;
+        private final Long userId;
+        private String refreshTokenHash;
+        private SessionStatus status = SessionStatus.ACTIVE;
+        private LocalDateTime expiresAt;
+        private LocalDateTime lastActivityAt;
+
+        private ActiveSession(String sessionId, Long userId) {
+            this.sessionId = sessionId;
+            this.userId = userId;
+        }
+    }
+}
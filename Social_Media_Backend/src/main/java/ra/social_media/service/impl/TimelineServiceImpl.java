@@ -0,0 +1,430 @@
+package ra.social_media.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ra.social_media.model.dto.projection.FollowerCountView;
+import ra.social_media.model.dto.projection.PostTimelineView;
+import ra.social_media.model.entity.Post;
+import ra.social_media.repository.FollowRepository;
+import ra.social_media.repository.PostRepository;
+import ra.social_media.repository.ProfileRepository;
+import ra.social_media.service.CounterService;
+import ra.social_media.service.TimelineService;
+import ra.social_media.utils.CounterType;
+import ra.social_media.utils.EpochMicros;
+import ra.social_media.utils.ExpiringCache;
+import ra.social_media.utils.PostVisibility;
+import ra.social_media.utils.TimelineBuffer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Home feed kiểu fan-out-on-write: khi có bài mới, id bài được đẩy vào ring buffer của từng follower đang "ấm"
+ * (có buffer trong bộ nhớ). Đọc feed chỉ là cắt một đoạn trong buffer.
+ * User "lạnh" được dựng lại buffer từ DB ở lần đọc đầu tiên nên fan-out không cần ghi cho họ.
+ *
+ * Tài khoản có từ feed_fanout_max_followers follower trở lên thì không fan-out (một bài sẽ phải ghi vào
+ * hàng trăm nghìn buffer); bài của họ nằm trong một buffer riêng theo tác giả và được trộn k-way theo
+ * createdAt vào feed của follower lúc đọc.
+ * Phân loại tác giả lớn chỉ có một nguồn (classify: số follower hiện tại qua CounterService), dùng cho cả fan-out
+ * lẫn lúc dựng feed. Feed ghi lại phân loại lúc dựng; tác giả vượt ngưỡng sau đó mà feed còn coi là tác giả thường
+ * thì feed bị dựng lại ở lần đọc kế tiếp, vì bài mới của họ không còn được fan-out.
+ */
+@Slf4j
+@Service
+public class TimelineServiceImpl implements TimelineService {
+
+    // Con trỏ "từ đầu"; LocalDateTime.MAX vượt quá miền giá trị DATETIME của MySQL
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private CounterService counterService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ExpiringCache<Long, HomeTimeline> timelines;
+    private final ExpiringCache<Long, CelebrityTimeline> celebrityTimelines;
+    private final ExpiringCache<Long, Boolean> celebrityStatus;
+    // Tác giả đang được coi là tác giả lớn, và thế hệ phân loại lúc họ vượt ngưỡng
+    private final Map<Long, Long> promotedAt = new ConcurrentHashMap<>();
+    private final AtomicLong classificationGeneration = new AtomicLong();
+    private final int capacity;
+    private final int celebrityCapacity;
+    private final int fanoutMaxFollowers;
+    private final ThreadPoolExecutor fanoutExecutor;
+
+    private final Counter fanoutWrites;
+    private final Counter fanoutSkipped;
+    private final Counter fanoutRejected;
+    private final Counter rebuilds;
+
+    public TimelineServiceImpl(@Value("${timeline_cache_size:50000}") int cacheSize,
+                               @Value("${timeline_ttl:1800000}") long ttlMillis,
+                               @Value("${timeline_capacity:800}") int capacity,
+                               @Value("${timeline_fanout_threads:2}") int fanoutThreads,
+                               @Value("${timeline_fanout_queue_capacity:10000}") int fanoutQueueCapacity,
+                               @Value("${feed_fanout_max_followers:10000}") int fanoutMaxFollowers,
+                               @Value("${celebrity_timeline_capacity:200}") int celebrityCapacity,
+                               @Value("${celebrity_cache_size:5000}") int celebrityCacheSize,
+                               @Value("${celebrity_status_ttl:60000}") long celebrityStatusTtlMillis,
+                               MeterRegistry meterRegistry) {
+        this.timelines = new ExpiringCache<>(cacheSize, ttlMillis);
+        this.celebrityTimelines = new ExpiringCache<>(celebrityCacheSize, ttlMillis);
+        this.celebrityStatus = new ExpiringCache<>(cacheSize, celebrityStatusTtlMillis);
+        this.capacity = capacity;
+        this.celebrityCapacity = celebrityCapacity;
+        this.fanoutMaxFollowers = fanoutMaxFollowers;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.fanoutExecutor = new ThreadPoolExecutor(fanoutThreads, fanoutThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fanoutQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "timeline-fanout-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.fanoutWrites = Counter.builder("timeline.fanout.writes").register(meterRegistry);
+        this.fanoutSkipped = Counter.builder("timeline.fanout.skipped").register(meterRegistry);
+        this.fanoutRejected = Counter.builder("timeline.fanout.rejected").register(meterRegistry);
+        this.rebuilds = Counter.builder("timeline.rebuilds").register(meterRegistry);
+        FunctionCounter.builder("timeline.cache.requests", timelines, c -> c.hitCount())
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("timeline.cache.requests", timelines, c -> c.missCount())
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("timeline.cache.size", timelines, c -> c.size()).register(meterRegistry);
+        Gauge.builder("timeline.celebrity.cache.size", celebrityTimelines, c -> c.size()).register(meterRegistry);
+        Gauge.builder("timeline.fanout.queue.depth", fanoutExecutor, e -> e.getQueue().size()).register(meterRegistry);
+    }
+
+    @Override
+    public void onPostCreated(Post post) {
+        long createdAt = EpochMicros.of(post.getCreatedAt());
+        Long postId = post.getId();
+        Long authorId = post.getAuthorId();
+
+        // Tác giả luôn thấy bài của mình ngay
+        HomeTimeline own = timelines.peek(authorId);
+        if (own != null) {
+            own.buffer().add(createdAt, postId);
+        }
+
+        if (post.getVisibility() != PostVisibility.PUBLIC) {
+            return;
+        }
+        if (isCelebrity(authorId)) {
+            CelebrityTimeline recent = celebrityTimelines.peek(authorId);
+            if (recent != null) {
+                recent.buffer().add(createdAt, postId);
+            }
+            fanoutSkipped.increment();
+            return;
+        }
+        try {
+            fanoutExecutor.execute(() -> fanOut(authorId, createdAt, postId));
+        } catch (RejectedExecutionException e) {
+            // Hàng đợi đầy: follower đang ấm sẽ thấy bài sau khi buffer hết hạn và được dựng lại
+            fanoutRejected.increment();
+            log.warn("Bỏ qua fan-out bài {} vì hàng đợi đầy", postId);
+        }
+    }
+
+    private void fanOut(Long authorId, long createdAt, long postId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Long> followers = followRepository.streamFollowerIds(authorId)) {
+                    followers.forEach(followerId -> {
+                        HomeTimeline home = timelines.peek(followerId);
+                        if (home != null) {
+                            home.buffer().add(createdAt, postId);
+                            fanoutWrites.increment();
+                        }
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Fan-out bài {} của user {} thất bại", postId, authorId, e);
+        }
+    }
+
+    @Override
+    public List<Long> homeTimeline(Long userId, long beforeCreatedAt, long beforePostId, int limit) {
+        HomeTimeline home = timelines.get(userId);
+        if (home != null && (!awaitLoaded(home.loaded()) || missesPromotedAuthor(home))) {
+            home = null;
+        }
+        if (home == null) {
+            home = rebuild(userId);
+        }
+
+        List<long[]> sources = new ArrayList<>(home.celebrityIds().size() + 1);
+        sources.add(ownEntries(userId, home, beforeCreatedAt, beforePostId, limit));
+        for (Long celebrityId : home.celebrityIds()) {
+            sources.add(celebrityEntries(celebrityId, beforeCreatedAt, beforePostId, limit));
+        }
+        return merge(sources, limit);
+    }
+
+    // Buffer của user, đọc tiếp từ DB nếu đi quá phần tử cũ nhất của buffer đã bị cắt
+    private long[] ownEntries(Long userId, HomeTimeline home, long beforeCreatedAt, long beforePostId, int limit) {
+        long[] entries = home.buffer().sliceEntriesBefore(beforeCreatedAt, beforePostId, limit);
+        if (entries.length / 2 >= limit || !home.buffer().isTruncated()) {
+            return entries;
+        }
+        return continueFromDatabase(entries, beforeCreatedAt, beforePostId, limit,
+                (cursorCreatedAt, cursorPostId, remaining) -> postRepository.findHomeTimeline(userId, home.authorIds(),
+                        PostVisibility.PUBLIC, toDateTime(cursorCreatedAt), cursorPostId, Pageable.ofSize(remaining)));
+    }
+
+    private long[] celebrityEntries(Long celebrityId, long beforeCreatedAt, long beforePostId, int limit) {
+        CelebrityTimeline cached = celebrityTimelines.get(celebrityId);
+        TimelineBuffer recent = cached != null && awaitLoaded(cached.loaded()) ? cached.buffer() : loadCelebrity(celebrityId);
+        long[] entries = recent.sliceEntriesBefore(beforeCreatedAt, beforePostId, limit);
+        if (entries.length / 2 >= limit || !recent.isTruncated()) {
+            return entries;
+        }
+        return continueFromDatabase(entries, beforeCreatedAt, beforePostId, limit,
+                (cursorCreatedAt, cursorPostId, remaining) -> postRepository.findAuthorTimeline(celebrityId,
+                        PostVisibility.PUBLIC, toDateTime(cursorCreatedAt), cursorPostId, Pageable.ofSize(remaining)));
+    }
+
+    private long[] continueFromDatabase(long[] entries, long beforeCreatedAt, long beforePostId, int limit, TimelineQuery query) {
+        int count = entries.length / 2;
+        long cursorCreatedAt = count > 0 ? entries[entries.length - 2] : beforeCreatedAt;
+        long cursorPostId = count > 0 ? entries[entries.length - 1] : beforePostId;
+        List<PostTimelineView> older = query.fetch(cursorCreatedAt, cursorPostId, limit - count);
+
+        long[] result = Arrays.copyOf(entries, (count + older.size()) * 2);
+        int i = entries.length;
+        for (PostTimelineView view : older) {
+            result[i++] = EpochMicros.of(view.getCreatedAt());
+            result[i++] = view.getId();
+        }
+        return result;
+    }
+
+    /**
+     * Trộn k nguồn đã sắp mới nhất trước bằng heap, lấy limit phần tử đầu, bỏ trùng
+     * (một bài có thể vừa được fan-out vừa nằm trong buffer của tác giả khi tác giả vừa vượt ngưỡng).
+     */
+    static List<Long> merge(List<long[]> sources, int limit) {
+        if (sources.size() == 1) {
+            long[] only = sources.get(0);
+            List<Long> ids = new ArrayList<>(only.length / 2);
+            for (int i = 1; i < only.length && ids.size() < limit; i += 2) {
+                ids.add(only[i]);
+            }
+            return ids;
+        }
+
+        // Mỗi phần tử heap là [chỉ số nguồn, vị trí createdAt trong mảng nguồn]; mới nhất lên đầu
+        PriorityQueue<int[]> heap = new PriorityQueue<>(sources.size(), (a, b) -> {
+            long[] x = sources.get(a[0]);
+            long[] y = sources.get(b[0]);
+            int cmp = Long.compare(y[b[1]], x[a[1]]);
+            return cmp != 0 ? cmp : Long.compare(y[b[1] + 1], x[a[1] + 1]);
+        });
+        for (int s = 0; s < sources.size(); s++) {
+            if (sources.get(s).length > 0) {
+                heap.add(new int[]{s, 0});
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(limit);
+        long lastCreatedAt = Long.MIN_VALUE;
+        long lastPostId = Long.MIN_VALUE;
+        while (!heap.isEmpty() && ids.size() < limit) {
+            int[] head = heap.poll();
+            long[] source = sources.get(head[0]);
+            long createdAt = source[head[1]];
+            long postId = source[head[1] + 1];
+            if (createdAt != lastCreatedAt || postId != lastPostId) {
+                ids.add(postId);
+                lastCreatedAt = createdAt;
+                lastPostId = postId;
+            }
+            head[1] += 2;
+            if (head[1] < source.length) {
+                heap.add(head);
+            }
+        }
+        return ids;
+    }
+
+    private HomeTimeline rebuild(Long userId) {
+        rebuilds.increment();
+        // Lấy trước khi phân loại: tác giả vượt ngưỡng trong lúc dựng sẽ có thế hệ lớn hơn và được phát hiện khi đọc
+        long generation = classificationGeneration.get();
+        List<Long> following = followRepository.findFollowingIds(userId);
+        List<Long> celebrities = new ArrayList<>();
+        if (!following.isEmpty()) {
+            for (FollowerCountView view : profileRepository.findFollowersCounts(following)) {
+                if (classify(view.getId(), view.getFollowersCount() == null ? 0 : view.getFollowersCount())) {
+                    celebrities.add(view.getId());
+                }
+            }
+        }
+
+        Set<Long> celebritySet = new HashSet<>(celebrities);
+        List<Long> authorIds = new ArrayList<>(following.size() + 1);
+        for (Long id : following) {
+            if (!celebritySet.contains(id)) {
+                authorIds.add(id);
+            }
+        }
+        // Không để danh sách IN rỗng
+        authorIds.add(userId);
+
+        // Đăng buffer rỗng trước khi query: bài commit sau snapshot của query mà fan-out chạy trước khi query xong
+        // vẫn được ghi vào buffer này; kết quả query trộn vào sau (add bỏ qua phần tử trùng)
+        TimelineBuffer buffer = new TimelineBuffer(capacity);
+        HomeTimeline home = new HomeTimeline(buffer, List.copyOf(authorIds), List.copyOf(celebrities),
+                generation, new CompletableFuture<>());
+        timelines.put(userId, home);
+        try {
+            List<PostTimelineView> recent = postRepository.findHomeTimeline(userId, authorIds, PostVisibility.PUBLIC,
+                    LATEST, Long.MAX_VALUE, Pageable.ofSize(capacity));
+            for (PostTimelineView view : recent) {
+                buffer.add(EpochMicros.of(view.getCreatedAt()), view.getId());
+            }
+            if (recent.size() >= capacity) {
+                buffer.markTruncated();
+            }
+        } catch (RuntimeException e) {
+            timelines.invalidate(userId);
+            home.loaded().completeExceptionally(e);
+            throw e;
+        }
+        home.loaded().complete(null);
+        return home;
+    }
+
+    // Request khác đang dựng buffer này: chờ nó nạp xong; false nếu lần dựng đó lỗi
+    private boolean awaitLoaded(CompletableFuture<Void> loaded) {
+        if (loaded.isDone() && !loaded.isCompletedExceptionally()) {
+            return true;
+        }
+        try {
+            loaded.join();
+            return true;
+        } catch (CompletionException | CancellationException e) {
+            return false;
+        }
+    }
+
+    // Như rebuild: đăng buffer rỗng trước khi query để bài tác giả vừa đăng trong lúc query không bị onPostCreated bỏ qua
+    private TimelineBuffer loadCelebrity(Long authorId) {
+        TimelineBuffer buffer = new TimelineBuffer(celebrityCapacity);
+        CelebrityTimeline timeline = new CelebrityTimeline(buffer, new CompletableFuture<>());
+        celebrityTimelines.put(authorId, timeline);
+        try {
+            List<PostTimelineView> recent = postRepository.findAuthorTimeline(authorId, PostVisibility.PUBLIC,
+                    LATEST, Long.MAX_VALUE, Pageable.ofSize(celebrityCapacity));
+            for (PostTimelineView view : recent) {
+                buffer.add(EpochMicros.of(view.getCreatedAt()), view.getId());
+            }
+            if (recent.size() >= celebrityCapacity) {
+                buffer.markTruncated();
+            }
+        } catch (RuntimeException e) {
+            celebrityTimelines.invalidate(authorId);
+            timeline.loaded().completeExceptionally(e);
+            throw e;
+        }
+        timeline.loaded().complete(null);
+        return buffer;
+    }
+
+    private boolean isCelebrity(Long authorId) {
+        Boolean cached = celebrityStatus.peek(authorId);
+        if (cached != null) {
+            return cached;
+        }
+        Integer persisted = profileRepository.findFollowersCountById(authorId);
+        return classify(authorId, persisted == null ? 0 : persisted);
+    }
+
+    // Nguồn duy nhất quyết định một tác giả có được fan-out hay không
+    private boolean classify(Long authorId, int persistedFollowers) {
+        int followers = counterService.current(CounterType.PROFILE_FOLLOWERS, authorId, persistedFollowers);
+        boolean celebrity = followers >= fanoutMaxFollowers;
+        celebrityStatus.put(authorId, celebrity);
+        if (celebrity) {
+            promotedAt.computeIfAbsent(authorId, id -> classificationGeneration.incrementAndGet());
+        } else {
+            // Tụt ngưỡng thì fan-out chạy lại; feed đang coi họ là tác giả lớn vẫn trộn buffer riêng, bỏ trùng khi trộn
+            promotedAt.remove(authorId);
+        }
+        return celebrity;
+    }
+
+    // Feed còn coi một tác giả là tác giả thường trong khi họ đã vượt ngưỡng sau lúc dựng feed
+    private boolean missesPromotedAuthor(HomeTimeline home) {
+        if (classificationGeneration.get() == home.generation()) {
+            return false;
+        }
+        for (Map.Entry<Long, Long> promoted : promotedAt.entrySet()) {
+            if (promoted.getValue() > home.generation() && home.authorIds().contains(promoted.getKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static LocalDateTime toDateTime(long createdAt) {
+        return createdAt == Long.MAX_VALUE ? LATEST : EpochMicros.toLocalDateTime(createdAt);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanoutExecutor.shutdown();
+    }
+
+    // Feed dựng sẵn của một user: buffer bài từ các tác giả thường, cùng danh sách tác giả lớn cần trộn lúc đọc.
+    // generation là thế hệ phân loại tác giả lúc dựng; loaded hoàn tất khi kết quả query lúc dựng đã được trộn vào buffer
+    private record HomeTimeline(TimelineBuffer buffer, List<Long> authorIds, List<Long> celebrityIds,
+                                long generation, CompletableFuture<Void> loaded) {
+    }
+
+    // Các bài gần nhất của một tác giả lớn; loaded hoàn tất khi kết quả query lúc nạp đã được trộn vào buffer
+    private record CelebrityTimeline(TimelineBuffer buffer, CompletableFuture<Void> loaded) {
+    }
+
+    @FunctionalInterface
+    private interface TimelineQuery {
+        List<PostTimelineView> fetch(long beforeCreatedAt, long beforePostId, int limit);
+    }
+}
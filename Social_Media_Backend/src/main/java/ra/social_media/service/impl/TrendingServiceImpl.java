@@ -0,0 +1,277 @@
+package ra.social_media.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ra.social_media.model.dto.response.TrendingTagResponse;
+import ra.social_media.service.TrendingService;
+import ra.social_media.utils.CountMinSketch;
+import ra.social_media.utils.TrendingWindow;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Hashtag thịnh hành tính hoàn toàn trong bộ nhớ từ luồng PostTag mới.
+ * Mỗi cửa sổ (1h, 24h) là một vòng Count-Min Sketch theo khối thời gian; điểm của tag là tổng số lần
+ * ước lượng trong các khối còn trong cửa sổ, nhân hệ số giảm dần theo tuổi khối.
+ * Chỉ giữ tối đa trending_candidates tag ứng viên mỗi cửa sổ, top-K chọn bằng heap trên tập ứng viên.
+ * Trạng thái được ghi ra đĩa định kỳ để khởi động lại không phải đếm lại từ đầu.
+ */
+@Slf4j
+@Service
+public class TrendingServiceImpl implements TrendingService {
+
+    private static final int SNAPSHOT_MAGIC = 0x54524E44;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final int width;
+    private final int depth;
+    private final int candidateCapacity;
+    private final int limitMax;
+    private final Path snapshotPath;
+
+    private final Map<TrendingWindow, SlidingWindow> windows = new EnumMap<>(TrendingWindow.class);
+    private final Object lock = new Object();
+
+    private final Counter recorded;
+
+    public TrendingServiceImpl(@Value("${trending_sketch_width:2048}") int width,
+                               @Value("${trending_sketch_depth:4}") int depth,
+                               @Value("${trending_candidates:500}") int candidateCapacity,
+                               @Value("${trending_limit_max:50}") int limitMax,
+                               @Value("${trending_snapshot_path:${java.io.tmpdir}/social_media/trending.snapshot}") String snapshotPath,
+                               MeterRegistry meterRegistry) {
+        this.width = width;
+        this.depth = depth;
+        this.candidateCapacity = candidateCapacity;
+        this.limitMax = limitMax;
+        this.snapshotPath = Paths.get(snapshotPath).toAbsolutePath().normalize();
+        for (TrendingWindow window : TrendingWindow.values()) {
+            windows.put(window, new SlidingWindow(window));
+        }
+        this.recorded = Counter.builder("trending.tags.recorded").register(meterRegistry);
+    }
+
+    @Override
+    public void record(String tag) {
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            for (SlidingWindow window : windows.values()) {
+                window.add(tag, now);
+            }
+        }
+        recorded.increment();
+    }
+
+    @Override
+    public List<TrendingTagResponse> trending(String window, int limit) {
+        TrendingWindow trendingWindow = TrendingWindow.fromCode(window);
+        int size = Math.max(1, Math.min(limit, limitMax));
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            return windows.get(trendingWindow).top(size, now);
+        }
+    }
+
+    @PostConstruct
+    public void restore() {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Bỏ qua snapshot hashtag {}: sai định dạng", snapshotPath);
+                return;
+            }
+            int windowCount = in.readInt();
+            synchronized (lock) {
+                for (int i = 0; i < windowCount; i++) {
+                    SlidingWindow window = windows.get(TrendingWindow.fromCode(in.readUTF()));
+                    if (!window.readFrom(in)) {
+                        log.warn("Bỏ qua snapshot hashtag {}: kích thước sketch đã đổi", snapshotPath);
+                        windows.replaceAll((key, value) -> new SlidingWindow(key));
+                        return;
+                    }
+                }
+            }
+            log.info("Đã nạp snapshot hashtag từ {}", snapshotPath);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Không đọc được snapshot hashtag {}", snapshotPath, e);
+            synchronized (lock) {
+                windows.replaceAll((key, value) -> new SlidingWindow(key));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${trending_snapshot_interval:60000}", initialDelayString = "${trending_snapshot_interval:60000}")
+    public void snapshot() {
+        // Chép ra mảng trong lock, ghi file ngoài lock để không chặn record()
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            synchronized (lock) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(windows.size());
+                for (SlidingWindow window : windows.values()) {
+                    out.writeUTF(window.window.getCode());
+                    window.writeTo(out);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Không tạo được snapshot hashtag", e);
+            return;
+        }
+
+        try {
+            Files.createDirectories(snapshotPath.getParent());
+            Path staging = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            Files.write(staging, buffer.toByteArray());
+            Files.move(staging, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Không ghi được snapshot hashtag {}", snapshotPath, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    private final class SlidingWindow {
+        private final TrendingWindow window;
+        private final CountMinSketch[] sketches;
+        // Số thứ tự khối (thời gian / bucketMillis) đang nằm ở mỗi ô của vòng, -1 = trống
+        private final long[] epochs;
+        // Tag ứng viên -> khối gần nhất có tag này
+        private final Map<String, Long> candidates = new HashMap<>();
+
+        SlidingWindow(TrendingWindow window) {
+            this.window = window;
+            this.sketches = new CountMinSketch[window.getBucketCount()];
+            this.epochs = new long[window.getBucketCount()];
+            for (int i = 0; i < sketches.length; i++) {
+                sketches[i] = new CountMinSketch(width, depth);
+                epochs[i] = -1;
+            }
+        }
+
+        void add(String tag, long now) {
+            long epoch = now / window.getBucketMillis();
+            int slot = (int) Math.floorMod(epoch, (long) sketches.length);
+            if (epochs[slot] != epoch) {
+                // Ô này đang giữ khối đã trôi khỏi cửa sổ
+                sketches[slot].clear();
+                epochs[slot] = epoch;
+            }
+            sketches[slot].add(tag, 1);
+            candidates.put(tag, epoch);
+            if (candidates.size() > candidateCapacity) {
+                prune(now);
+            }
+        }
+
+        List<TrendingTagResponse> top(int limit, long now) {
+            long current = now / window.getBucketMillis();
+            PriorityQueue<TrendingTagResponse> heap = new PriorityQueue<>(limit + 1,
+                    Comparator.comparingDouble(TrendingTagResponse::getScore));
+            Iterator<Map.Entry<String, Long>> it = candidates.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Long> candidate = it.next();
+                if (candidate.getValue() <= current - sketches.length) {
+                    it.remove();
+                    continue;
+                }
+                TrendingTagResponse scored = score(candidate.getKey(), current);
+                if (scored.getCount() == 0) {
+                    continue;
+                }
+                heap.add(scored);
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+            List<TrendingTagResponse> result = new ArrayList<>(heap);
+            result.sort(Comparator.comparingDouble(TrendingTagResponse::getScore).reversed());
+            return result;
+        }
+
+        private TrendingTagResponse score(String tag, long current) {
+            long count = 0;
+            double score = 0;
+            for (int i = 0; i < sketches.length; i++) {
+                long epoch = epochs[i];
+                if (epoch < 0 || epoch > current || epoch <= current - sketches.length) {
+                    continue;
+                }
+                int estimate = sketches[i].estimate(tag);
+                if (estimate == 0) {
+                    continue;
+                }
+                double age = (double) (current - epoch) * window.getBucketMillis() / window.getHalfLifeMillis();
+                count += estimate;
+                score += estimate * Math.pow(0.5, age);
+            }
+            return new TrendingTagResponse(tag, score, count);
+        }
+
+        // Bỏ tag đã ra khỏi cửa sổ, còn quá nhiều thì giữ lại 3/4 dung lượng theo điểm cao nhất
+        private void prune(long now) {
+            long current = now / window.getBucketMillis();
+            candidates.values().removeIf(lastSeen -> lastSeen <= current - sketches.length);
+            if (candidates.size() <= candidateCapacity) {
+                return;
+            }
+            int keep = candidateCapacity - candidateCapacity / 4;
+            Set<String> survivors = new HashSet<>();
+            for (TrendingTagResponse scored : top(keep, now)) {
+                survivors.add(scored.getName());
+            }
+            candidates.keySet().retainAll(survivors);
+        }
+
+        void writeTo(DataOutput out) throws IOException {
+            out.writeInt(sketches.length);
+            for (int i = 0; i < sketches.length; i++) {
+                out.writeLong(epochs[i]);
+                sketches[i].writeTo(out);
+            }
+            out.writeInt(candidates.size());
+            for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+                out.writeUTF(candidate.getKey());
+                out.writeLong(candidate.getValue());
+            }
+        }
+
+        /**
+         * @return false nếu snapshot được ghi với số khối hoặc kích thước sketch khác cấu hình hiện tại
+         */
+        boolean readFrom(DataInput in) throws IOException {
+            if (in.readInt() != sketches.length) {
+                return false;
+            }
+            for (int i = 0; i < sketches.length; i++) {
+                epochs[i] = in.readLong();
+                CountMinSketch sketch = CountMinSketch.readFrom(in);
+                if (sketch.width() != width || sketch.depth() != depth) {
+                    return false;
+                }
+                sketches[i] = sketch;
+            }
+            int candidateCount = in.readInt();
+            for (int i = 0; i < candidateCount; i++) {
+                candidates.put(in.readUTF(), in.readLong());
+            }
+            return true;
+        }
+    }
+}
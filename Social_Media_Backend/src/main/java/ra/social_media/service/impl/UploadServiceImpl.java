@@ -0,0 +1,431 @@
+package ra.social_media.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import ra.social_media.exception.HttpBadRequest;
+import ra.social_media.exception.HttpConflict;
+import ra.social_media.exception.HttpForbidden;
+import ra.social_media.exception.HttpNotFound;
+import ra.social_media.exception.HttpServiceUnavailable;
+import ra.social_media.exception.HttpTooManyRequests;
+import ra.social_media.model.dto.request.UploadInitRequest;
+import ra.social_media.model.dto.response.MediaResponse;
+import ra.social_media.model.dto.response.UploadSessionResponse;
+import ra.social_media.model.entity.Media;
+import ra.social_media.model.entity.Post;
+import ra.social_media.repository.MediaRepository;
+import ra.social_media.repository.PostRepository;
+import ra.social_media.security.principal.UserPrincipal;
+import ra.social_media.service.UploadService;
+import ra.social_media.utils.MediaType;
+import ra.social_media.utils.Mp4Probe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Upload video / Reels theo từng chunk, có thể resume.
+ * File đích được cấp phát trước dạng sparse với đúng kích thước, mỗi chunk ghi thẳng vào offset của nó
+ * (các chunk có thể gửi song song, không theo thứ tự) nên khi hoàn tất không cần ghép hay copy gì thêm.
+ * Mỗi phiên giữ chỗ tới upload_max_size trên đĩa tới upload_idle_timeout nên số phiên mở được giới hạn
+ * theo user và toàn server; file chỉ được mở trong lúc ghi một chunk, không giữ file descriptor suốt phiên.
+ */
+@Slf4j
+@Service
+public class UploadServiceImpl implements UploadService {
+
+    static final String VIDEO_FOLDER = "social_media_videos";
+
+    private static final Set<String> VIDEO_CONTENT_TYPES = Set.of("video/mp4", "video/quicktime", "video/webm");
+    // WebM là Matroska, không phải ISO BMFF nên không qua Mp4Probe; lưu không kèm kích thước / thời lượng
+    private static final Set<String> PROBED_CONTENT_TYPES = Set.of("video/mp4", "video/quicktime");
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private MediaRepository mediaRepository;
+
+    @Autowired
+    private MediaSpool mediaSpool;
+
+    @Autowired
+    private DedupMediaStore dedupMediaStore;
+
+    @Value("${upload_chunk_size:4194304}")
+    private int chunkSize;
+
+    @Value("${upload_max_size:262144000}")
+    private long maxSize;
+
+    @Value("${upload_idle_timeout:86400000}")
+    private long idleTimeoutMillis;
+
+    @Value("${video_max_duration:600000}")
+    private long maxDurationMillis;
+
+    @Value("${video_max_dimension:4096}")
+    private int maxDimension;
+
+    @Value("${upload_max_sessions_per_user:3}")
+    private int maxSessionsPerUser;
+
+    @Value("${upload_max_sessions:500}")
+    private int maxSessions;
+
+    private final Map<String, UploadState> uploads = new ConcurrentHashMap<>();
+    // Số phiên đang mở theo user, cùng tổng số phiên; cả hai được đồng bộ trên sessionsPerUser
+    private final Map<Long, Integer> sessionsPerUser = new HashMap<>();
+    private int openSessions;
+
+    @Override
+    public UploadSessionResponse init(UploadInitRequest request) {
+        if (request.getMediaType() != MediaType.VIDEO && request.getMediaType() != MediaType.REEL) {
+            throw new HttpBadRequest("Chỉ hỗ trợ upload chunk cho VIDEO hoặc REEL");
+        }
+        if (!VIDEO_CONTENT_TYPES.contains(request.getContentType())) {
+            throw new HttpBadRequest("Định dạng video không được hỗ trợ");
+        }
+        if (request.getTotalSize() > maxSize) {
+            throw new HttpBadRequest("Video vượt quá dung lượng cho phép");
+        }
+
+        Long userId = currentUser().getId();
+        Post post = postRepository.findById(request.getPostId())
+                .orElseThrow(() -> new HttpNotFound("Bài viết không tồn tại"));
+        if (!post.getAuthorId().equals(userId)) {
+            throw new HttpForbidden("Bạn không có quyền thêm media vào bài viết này");
+        }
+
+        reserveSession(userId);
+        UploadState state;
+        try {
+            Path file = mediaSpool.newFile("chunked");
+            // setLength chỉ đặt kích thước, filesystem không cấp block thật cho tới khi có dữ liệu (sparse file)
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+                raf.setLength(request.getTotalSize());
+            }
+            state = new UploadState(UUID.randomUUID().toString(), userId, request.getPostId(),
+                    request.getMediaType(), request.getContentType(), request.getTotalSize(), chunkSize, file);
+        } catch (IOException e) {
+            releaseSession(userId);
+            throw new RuntimeException("Không tạo được phiên upload: " + e.getMessage());
+        }
+        uploads.put(state.uploadId, state);
+        return toResponse(state);
+    }
+
+    @Override
+    public UploadSessionResponse writeChunk(String uploadId, int index, String sha256, InputStream body) {
+        UploadState state = ownedUpload(uploadId);
+        if (index < 0 || index >= state.totalChunks) {
+            throw new HttpBadRequest("Chỉ số chunk không hợp lệ");
+        }
+        if (sha256 == null || sha256.isBlank()) {
+            throw new HttpBadRequest("Thiếu checksum của chunk");
+        }
+
+        // Bỏ đánh dấu trước khi ghi: chunk gửi lại có thể ghi đè dữ liệu đã xác minh bằng dữ liệu hỏng,
+        // nên chunk chỉ được tính là đã nhận khi lần ghi này qua được kiểm tra độ dài và checksum
+        synchronized (state) {
+            if (state.completing) {
+                throw new HttpConflict("Phiên upload đã hoàn tất");
+            }
+            if (state.writing.get(index)) {
+                throw new HttpConflict("Chunk " + index + " đang được ghi");
+            }
+            state.received.clear(index);
+            state.writing.set(index);
+        }
+
+        boolean verified = false;
+        try {
+            writeAndVerify(state, index, sha256, body);
+            verified = true;
+        } finally {
+            synchronized (state) {
+                state.writing.clear(index);
+                if (verified) {
+                    state.received.set(index);
+                }
+                state.lastActivityAt = System.currentTimeMillis();
+            }
+        }
+
+        // Chunk đầu chứa box đầu tiên của file: sai định dạng thì huỷ luôn, không đợi client gửi hết
+        if (index == 0 && PROBED_CONTENT_TYPES.contains(state.contentType) && !looksLikeVideo(state)) {
+            discard(state);
+            throw new HttpBadRequest("File không phải video MP4/MOV hợp lệ");
+        }
+
+        synchronized (state) {
+            return toResponse(state);
+        }
+    }
+
+    private void writeAndVerify(UploadState state, int index, String sha256, InputStream body) {
+        long offset = (long) index * state.chunkSize;
+        long expected = Math.min(state.chunkSize, state.totalSize - offset);
+        MessageDigest digest = newDigest();
+        long written = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (FileChannel channel = FileChannel.open(state.file, StandardOpenOption.WRITE)) {
+            int read;
+            // Ghi từng block vào đúng offset, FileChannel cho phép ghi theo vị trí từ nhiều thread cùng lúc
+            while ((read = body.read(buffer, 0, (int) Math.min(buffer.length, expected - written + 1))) != -1) {
+                if (written + read > expected) {
+                    throw new HttpBadRequest("Chunk lớn hơn kích thước cho phép");
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                long position = offset + written;
+                while (chunk.hasRemaining()) {
+                    position += channel.write(chunk, position);
+                }
+                written += read;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Lỗi ghi chunk: " + e.getMessage());
+        }
+
+        if (written != expected) {
+            throw new HttpBadRequest("Chunk thiếu dữ liệu, cần " + expected + " bytes nhưng nhận " + written);
+        }
+        if (!HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(sha256.trim())) {
+            throw new HttpBadRequest("Checksum của chunk không khớp");
+        }
+    }
+
+    @Override
+    public UploadSessionResponse status(String uploadId) {
+        UploadState state = ownedUpload(uploadId);
+        synchronized (state) {
+            return toResponse(state);
+        }
+    }
+
+    @Override
+    public MediaResponse complete(String uploadId) {
+        UploadState state = ownedUpload(uploadId);
+        synchronized (state) {
+            if (state.completing) {
+                throw new HttpConflict("Phiên upload đang được hoàn tất");
+            }
+            if (!state.writing.isEmpty()) {
+                throw new HttpConflict("Còn chunk đang được ghi");
+            }
+            if (state.received.cardinality() != state.totalChunks) {
+                throw new HttpBadRequest("Còn thiếu " + (state.totalChunks - state.received.cardinality()) + " chunk");
+            }
+            state.completing = true;
+        }
+
+        Mp4Probe.Mp4Metadata metadata;
+        try {
+            // Các chunk được ghi qua channel riêng của từng request, đẩy hết xuống đĩa trước khi đọc lại
+            try (FileChannel channel = FileChannel.open(state.file, StandardOpenOption.WRITE)) {
+                channel.force(false);
+            }
+            metadata = PROBED_CONTENT_TYPES.contains(state.contentType) ? probe(state) : null;
+        } catch (IOException e) {
+            discard(state);
+            throw new HttpBadRequest("Video không hợp lệ: " + e.getMessage());
+        }
+
+        String url;
+        try {
+            // File đã nằm sẵn trong spool, storage local chỉ cần rename sang thư mục media
+            url = dedupMediaStore.acquire(state.file, VIDEO_FOLDER, state.contentType);
+        } catch (IOException e) {
+            synchronized (state) {
+                state.completing = false;
+            }
+            throw new RuntimeException("Lỗi lưu video: " + e.getMessage());
+        }
+        removeUpload(state);
+
+        Media media = new Media();
+        media.setPostId(state.postId);
+        media.setMediaType(state.mediaType);
+        media.setUrl(url);
+        if (metadata != null) {
+            media.setWidth(metadata.width());
+            media.setHeight(metadata.height());
+            media.setDurationMs(metadata.durationMs());
+        }
+        try {
+            media.setOrderInPost(mediaRepository.countByPostId(state.postId));
+            mediaRepository.save(media);
+        } catch (RuntimeException e) {
+            // Không có Media nào giữ tham chiếu vừa lấy
+            dedupMediaStore.release(url);
+            throw e;
+        }
+
+        return MediaServiceImpl.toResponse(media);
+    }
+
+    // Dọn các phiên upload bị bỏ dở
+    @Scheduled(fixedDelayString = "${upload_cleanup_interval:600000}")
+    public void purgeIdleUploads() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        for (UploadState state : uploads.values()) {
+            synchronized (state) {
+                if (state.completing || state.lastActivityAt > cutoff) {
+                    continue;
+                }
+                removeUpload(state);
+            }
+            discard(state);
+        }
+    }
+
+    // Chỉ đọc header các box trong moov, không đọc dữ liệu video
+    private Mp4Probe.Mp4Metadata probe(UploadState state) throws IOException {
+        Mp4Probe.Mp4Metadata metadata;
+        try (FileChannel channel = FileChannel.open(state.file, StandardOpenOption.READ)) {
+            metadata = Mp4Probe.probe(channel);
+        }
+        if (metadata.durationMs() < 0 || metadata.durationMs() > maxDurationMillis) {
+            throw new Mp4Probe.InvalidMp4Exception("Thời lượng vượt quá " + maxDurationMillis / 1000 + " giây");
+        }
+        if (metadata.width() > maxDimension || metadata.height() > maxDimension) {
+            throw new Mp4Probe.InvalidMp4Exception("Độ phân giải vượt quá " + maxDimension + "px");
+        }
+        return metadata;
+    }
+
+    private boolean looksLikeVideo(UploadState state) {
+        try (FileChannel channel = FileChannel.open(state.file, StandardOpenOption.READ)) {
+            return Mp4Probe.looksLikeIsoBmff(channel);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void reserveSession(Long userId) {
+        synchronized (sessionsPerUser) {
+            if (sessionsPerUser.getOrDefault(userId, 0) >= maxSessionsPerUser) {
+                throw new HttpTooManyRequests("Bạn đang có quá nhiều phiên upload chưa hoàn tất");
+            }
+            if (openSessions >= maxSessions) {
+                throw new HttpServiceUnavailable("Máy chủ đang quá tải phiên upload, vui lòng thử lại sau");
+            }
+            sessionsPerUser.merge(userId, 1, Integer::sum);
+            openSessions++;
+        }
+    }
+
+    private void releaseSession(Long userId) {
+        synchronized (sessionsPerUser) {
+            sessionsPerUser.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+            openSessions--;
+        }
+    }
+
+    // Chỉ lần gỡ đầu tiên trả lại suất phiên (discard có thể chạy sau khi purge / complete đã gỡ)
+    private void removeUpload(UploadState state) {
+        if (uploads.remove(state.uploadId, state)) {
+            releaseSession(state.userId);
+        }
+    }
+
+    private void discard(UploadState state) {
+        removeUpload(state);
+        try {
+            Files.deleteIfExists(state.file);
+        } catch (IOException e) {
+            log.warn("Không xoá được file upload {}", state.file, e);
+        }
+    }
+
+    private UploadState ownedUpload(String uploadId) {
+        UploadState state = uploads.get(uploadId);
+        if (state == null) {
+            throw new HttpNotFound("Phiên upload không tồn tại hoặc đã hết hạn");
+        }
+        if (!state.userId.equals(currentUser().getId())) {
+            throw new HttpForbidden("Bạn không có quyền với phiên upload này");
+        }
+        return state;
+    }
+
+    private UploadSessionResponse toResponse(UploadState state) {
+        List<Integer> missing = new ArrayList<>();
+        for (int i = state.received.nextClearBit(0); i < state.totalChunks; i = state.received.nextClearBit(i + 1)) {
+            missing.add(i);
+        }
+        return UploadSessionResponse.builder()
+                .uploadId(state.uploadId)
+                .totalSize(state.totalSize)
+                .chunkSize(state.chunkSize)
+                .totalChunks(state.totalChunks)
+                .receivedChunks(state.received.cardinality())
+                .missingChunks(missing)
+                .build();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private UserPrincipal currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal userPrincipal)) {
+            throw new RuntimeException("Không thể xác định người dùng hiện tại");
+        }
+        return userPrincipal;
+    }
+
+    private static class UploadState {
+        private final String uploadId;
+        private final Long userId;
+        private final Long postId;
+        private final MediaType mediaType;
+        private final String contentType;
+        private final long totalSize;
+        private final int chunkSize;
+        private final int totalChunks;
+        private final Path file;
+        private final BitSet received;
+        // Chunk đang có request ghi dở
+        private final BitSet writing;
+        private long lastActivityAt;
+        private boolean completing;
+
+        UploadState(String uploadId, Long userId, Long postId, MediaType mediaType, String contentType,
+                    long totalSize, int chunkSize, Path file) {
+            this.uploadId = uploadId;
+            this.userId = userId;
+            this.postId = postId;
+            this.mediaType = mediaType;
+            this.contentType = contentType;
+            this.totalSize = totalSize;
+            this.chunkSize = chunkSize;
+            this.totalChunks = (int) ((totalSize + chunkSize - 1) / chunkSize);
+            this.file = file;
+            this.received = new BitSet(totalChunks);
+            this.writing = new BitSet(totalChunks);
+            this.lastActivityAt = System.currentTimeMillis();
+        }
+    }
+}
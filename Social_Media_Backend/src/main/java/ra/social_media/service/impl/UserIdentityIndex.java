@@ -0,0 +1,79 @@
+package ra.social_media.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ra.social_media.model.dto.projection.UserIdentityView;
+import ra.social_media.repository.UserRepository;
+import ra.social_media.utils.BloomFilter;
+import ra.social_media.utils.TextFolding;
+
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter trên toàn bộ username/email đã tồn tại.
+ * Kết quả "chắc chắn chưa có" cho phép bỏ qua hoàn toàn query kiểm tra trùng khi đăng ký.
+ */
+@Component
+public class UserIdentityIndex {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${identity_index_expected_users:1000000}")
+    private long expectedUsers;
+
+    @Value("${identity_index_fpp:0.01}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter usernames;
+    private volatile BloomFilter emails;
+    // Chưa build xong thì mọi câu hỏi đều trả về "có thể có" -> hỏi DB như bình thường
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        ready = false;
+        // Gán filter mới trước khi stream để các user đăng ký trong lúc build cũng được ghi vào
+        usernames = new BloomFilter(expectedUsers, falsePositiveRate);
+        emails = new BloomFilter(expectedUsers, falsePositiveRate);
+
+        try (Stream<UserIdentityView> users = userRepository.streamAllIdentities()) {
+            users.forEach(this::add);
+        }
+        ready = true;
+    }
+
+    public void add(UserIdentityView user) {
+        add(user.getUsername(), user.getEmail());
+    }
+
+    public void add(String username, String email) {
+        BloomFilter currentUsernames = usernames;
+        BloomFilter currentEmails = emails;
+        if (currentUsernames != null && username != null) {
+            currentUsernames.put(normalize(username));
+        }
+        if (currentEmails != null && email != null) {
+            currentEmails.put(normalize(email));
+        }
+    }
+
+    public boolean mightContainUsername(String username) {
+        return !ready || usernames.mightContain(normalize(username));
+    }
+
+    public boolean mightContainEmail(String email) {
+        return !ready || emails.mightContain(normalize(email));
+    }
+
+    // Collation mặc định của MySQL (utf8mb4_0900_ai_ci) không phân biệt hoa thường lẫn dấu: "Đạt" trùng "dat",
+    // nên filter cũng bỏ dấu, nếu không sẽ trả về "chắc chắn chưa có" cho một tên mà DB coi là đã tồn tại
+    private String normalize(String value) {
+        return TextFolding.fold(value.trim());
+    }
+}
@@ -1,15 +1,20 @@
 package ra.social_media.service.impl;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import ra.social_media.exception.HttpConflict;
+import ra.social_media.exception.HttpUnAuthorized;
+import ra.social_media.model.dto.request.RefreshTokenRequest;
 import ra.social_media.model.dto.request.UserLogin;
 import ra.social_media.model.dto.request.UserRegister;
+import ra.social_media.model.dto.response.AvailabilityResponse;
 import ra.social_media.model.dto.response.JWTResponse;
 import ra.social_media.model.dto.response.UserRegisterResponse;
 import ra.social_media.model.entity.Profile;
@@ -19,6 +24,8 @@ import ra.social_media.repository.UserRepository;
 import ra.social_media.security.jwt.JWTAuthFilter;
 import ra.social_media.security.jwt.JWTProvider;
 import ra.social_media.security.principal.UserPrincipal;
+import ra.social_media.security.ratelimit.AuthRateLimiter;
+import ra.social_media.service.SessionService;
 import ra.social_media.service.UserService;
 import ra.social_media.model.entity.Profile;
 import java.time.Instant;
@@ -44,12 +51,24 @@ public class UserServiceImpl implements UserService {
 
     @Autowired
     private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private UserIdentityIndex userIdentityIndex;
+
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
     @Override
     public UserRegisterResponse register(UserRegister userRegister) {
-        if(userRepository.findByUsername(userRegister.getUsername()).isPresent()) {
+        if(isUsernameTaken(userRegister.getUsername())) {
             throw new HttpConflict("Tên đăng nhập đã tồn tại");
         }
-        if(userRepository.findByEmail(userRegister.getEmail()).isPresent()) {
+        if(isEmailTaken(userRegister.getEmail())) {
             throw new HttpConflict("Email đã tồn tại");
         }
         User user = User.builder()
@@ -62,7 +81,14 @@ public class UserServiceImpl implements UserService {
                 .lastSeenAt(Instant.now())
                 .build();
 
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            // Hai request đăng ký cùng tên / email vượt qua bước kiểm tra cùng lúc: unique index của DB chặn lại
+            throw new HttpConflict("Tên đăng nhập hoặc email đã tồn tại");
+        }
+        userIdentityIndex.add(savedUser.getUsername(), savedUser.getEmail());
 
         Profile newProfile = Profile.builder()
                 .user(savedUser)
@@ -81,8 +107,16 @@ public class UserServiceImpl implements UserService {
 
         profileRepository.save(newProfile);
 
-        String accessToken = jwtProvider.generateAccessToken(savedUser.getUsername());
-        String refreshToken = jwtProvider.generateRefreshToken(savedUser.getUsername());
+        UserPrincipal principal = UserPrincipal.builder()
+                .id(savedUser.getId())
+                .username(savedUser.getUsername())
+                .email(savedUser.getEmail())
+                .fullName(savedUser.getFullName())
+                .isActive(savedUser.getStatus())
+                .build();
+        SessionService.IssuedSession session = sessionService.startSession(savedUser.getId(), savedUser.getUsername());
+        String accessToken = jwtProvider.generateAccessToken(principal, session.sessionId());
+        String refreshToken = session.refreshToken();
 
         return UserRegisterResponse.builder()
                 .id(savedUser.getId())
@@ -99,6 +133,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public JWTResponse login(UserLogin userLogin) {
+        authRateLimiter.checkAccount(userLogin.getLogin());
         Authentication authentication;
         try {
             authentication = authenticationManager.authenticate(
@@ -110,8 +145,9 @@ public class UserServiceImpl implements UserService {
         }
 
         UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
-        String token = jwtProvider.generateAccessToken(user.getUsername());
-        String refreshToken = jwtProvider.generateRefreshToken(user.getUsername());
+        SessionService.IssuedSession session = sessionService.startSession(user.getId(), user.getUsername());
+        String token = jwtProvider.generateAccessToken(user, session.sessionId());
+        String refreshToken = session.refreshToken();
 
         return JWTResponse.builder()
                 .username(user.getUsername())
@@ -121,4 +157,39 @@ public class UserServiceImpl implements UserService {
                 .accessToken(token)
                 .refreshToken(refreshToken)
                 .build();    }
+
+    @Override
+    public JWTResponse refreshToken(RefreshTokenRequest refreshTokenRequest) {
+        SessionService.IssuedSession session = sessionService.rotate(refreshTokenRequest.getRefreshToken());
+        UserPrincipal user = (UserPrincipal) userDetailsService.loadUserByUsername(session.username());
+        if (!user.isEnabled()) {
+            throw new HttpUnAuthorized("Tài khoản đã bị vô hiệu hoá");
+        }
+
+        return JWTResponse.builder()
+                .username(user.getUsername())
+                .fullName(user.getFullName())
+                .email(user.getEmail())
+                .isActive(user.getIsActive())
+                .accessToken(jwtProvider.generateAccessToken(user, session.sessionId()))
+                .refreshToken(session.refreshToken())
+                .build();
+    }
+
+    @Override
+    public AvailabilityResponse checkAvailability(String username, String email) {
+        return AvailabilityResponse.builder()
+                .usernameAvailable(username == null ? null : !isUsernameTaken(username))
+                .emailAvailable(email == null ? null : !isEmailTaken(email))
+                .build();
+    }
+
+    // Bloom filter trả lời "chắc chắn chưa có" thì không cần query DB
+    private boolean isUsernameTaken(String username) {
+        return userIdentityIndex.mightContainUsername(username) && userRepository.existsByUsername(username);
+    }
+
+    private boolean isEmailTaken(String email) {
+        return userIdentityIndex.mightContainEmail(email) && userRepository.existsByEmail(email);
+    }
 }
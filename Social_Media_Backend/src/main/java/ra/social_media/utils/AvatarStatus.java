@@ -0,0 +1,7 @@
+package ra.social_media.utils;
+
+public enum AvatarStatus {
+    READY,
+    PENDING,
+    FAILED
+}
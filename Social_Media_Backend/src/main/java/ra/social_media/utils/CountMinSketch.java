@@ -0,0 +1,90 @@
+package ra.social_media.utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Count-Min Sketch cho chuỗi: depth hàng x width ô đếm, mỗi hàng một hàm băm.
+ * estimate() không bao giờ nhỏ hơn số lần thật, sai số dương ~ (tổng số lần / width) với xác suất cao.
+ * Không an toàn đa luồng, người gọi tự đồng bộ.
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final int[] counts;
+
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("width and depth must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counts = new int[width * depth];
+    }
+
+    public void add(String value, int count) {
+        long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+        for (int row = 0; row < depth; row++) {
+            int cell = row * width + (int) Math.floorMod(hash1 + row * hash2, (long) width);
+            counts[cell] += count;
+        }
+    }
+
+    public int estimate(String value) {
+        long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int cell = row * width + (int) Math.floorMod(hash1 + row * hash2, (long) width);
+            min = Math.min(min, counts[cell]);
+        }
+        return min;
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(width);
+        out.writeInt(depth);
+        for (int count : counts) {
+            out.writeInt(count);
+        }
+    }
+
+    public static CountMinSketch readFrom(DataInput in) throws IOException {
+        CountMinSketch sketch = new CountMinSketch(in.readInt(), in.readInt());
+        for (int i = 0; i < sketch.counts.length; i++) {
+            sketch.counts[i] = in.readInt();
+        }
+        return sketch;
+    }
+
+    // FNV-1a 64 bit + bước trộn cuối của MurmurHash3 (fmix64), giống BloomFilter
+    private static long hash(String value, long seed) {
+        long h = 0xCBF29CE484222325L ^ seed;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,35 @@
+package ra.social_media.utils;
+
+/**
+ * Các cột đếm được cập nhật qua CounterService, kèm bảng/cột tương ứng để flush bằng SQL.
+ */
+public enum CounterType {
+    PROFILE_FOLLOWERS("profiles", "followers_count"),
+    PROFILE_FOLLOWING("profiles", "following_count"),
+    PROFILE_POSTS("profiles", "posts_count"),
+    POST_LIKES("posts", "like_count"),
+    POST_COMMENTS("posts", "comment_count"),
+    COMMENT_LIKES("comments", "like_count"),
+    COMMENT_REPLIES("comments", "reply_count"),
+    TAG_POSTS("tags", "post_count");
+
+    private final String table;
+    private final String column;
+
+    CounterType(String table, String column) {
+        this.table = table;
+        this.column = column;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public boolean isProfileCounter() {
+        return table.equals("profiles");
+    }
+}
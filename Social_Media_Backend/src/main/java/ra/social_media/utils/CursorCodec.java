@@ -0,0 +1,77 @@
+package ra.social_media.utils;
+
+import ra.social_media.exception.HttpBadRequest;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Mã hoá con trỏ phân trang keyset (createdAt, id) của phần tử cuối trang trước thành chuỗi base64url.
+ * Client chỉ truyền lại nguyên chuỗi, không cần biết cấu trúc bên trong.
+ */
+public final class CursorCodec {
+
+    private static final byte VERSION = 1;
+    private static final int LENGTH = 1 + Long.BYTES * 2;
+
+    // Con trỏ "từ đầu"; LocalDateTime.MAX/MIN vượt quá miền giá trị DATETIME của MySQL
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1000, 1, 1, 0, 0);
+
+    // Trang đầu của danh sách mới nhất trước ("createdAt < con trỏ")
+    public static final Cursor START = new Cursor(Long.MAX_VALUE, Long.MAX_VALUE);
+    // Trang đầu của danh sách cũ nhất trước ("createdAt > con trỏ")
+    public static final Cursor START_ASCENDING = new Cursor(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    private CursorCodec() {
+    }
+
+    public static String encode(LocalDateTime createdAt, long id) {
+        return encode(EpochMicros.of(createdAt), id);
+    }
+
+    public static String encode(long createdAtMicros, long id) {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH);
+        buffer.put(VERSION).putLong(createdAtMicros).putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Chuỗi rỗng hoặc null nghĩa là trang đầu.
+     */
+    public static Cursor decode(String cursor) {
+        return decode(cursor, START);
+    }
+
+    public static Cursor decode(String cursor, Cursor start) {
+        if (cursor == null || cursor.isBlank()) {
+            return start;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor.trim());
+        } catch (IllegalArgumentException e) {
+            throw new HttpBadRequest("Cursor không hợp lệ");
+        }
+        if (bytes.length != LENGTH || bytes[0] != VERSION) {
+            throw new HttpBadRequest("Cursor không hợp lệ");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, LENGTH - 1);
+        return new Cursor(buffer.getLong(), buffer.getLong());
+    }
+
+    public record Cursor(long createdAt, long id) {
+
+        // Dùng trực tiếp làm tham số "createdAt < ?" trong query
+        public LocalDateTime createdAtTime() {
+            if (createdAt == Long.MAX_VALUE) {
+                return LATEST;
+            }
+            if (createdAt == Long.MIN_VALUE) {
+                return EARLIEST;
+            }
+            return EpochMicros.toLocalDateTime(createdAt);
+        }
+    }
+}
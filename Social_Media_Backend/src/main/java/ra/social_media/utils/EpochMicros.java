@@ -0,0 +1,28 @@
+package ra.social_media.utils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Đổi LocalDateTime (cột DATETIME(6)) sang số micro giây và ngược lại, dùng làm khoá sắp xếp dạng long.
+ * Giữ đủ độ chính xác micro giây để con trỏ phân trang không bỏ sót / lặp bài tạo cùng mili giây.
+ */
+public final class EpochMicros {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private EpochMicros() {
+    }
+
+    public static long of(LocalDateTime time) {
+        Instant instant = time.atZone(ZONE).toInstant();
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    public static LocalDateTime toLocalDateTime(long micros) {
+        Instant instant = Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+        return LocalDateTime.ofInstant(instant, ZONE);
+    }
+}
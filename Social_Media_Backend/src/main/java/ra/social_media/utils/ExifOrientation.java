@@ -0,0 +1,122 @@
+package ra.social_media.utils;
+
+import java.awt.geom.AffineTransform;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Đọc tag Orientation (0x0112) trong EXIF của JPEG và dựng phép biến đổi để ảnh đứng đúng chiều.
+ * Ảnh chụp bằng điện thoại thường lưu pixel theo chiều cảm biến và chỉ ghi hướng xoay vào EXIF;
+ * ImageIO bỏ qua tag này nên phải tự xoay trước khi thu nhỏ.
+ * Chỉ quét các segment APPn ở đầu file, dừng ở SOS, không đọc dữ liệu ảnh.
+ */
+public final class ExifOrientation {
+
+    public static final int NORMAL = 1;
+
+    private static final int TAG_ORIENTATION = 0x0112;
+    private static final int TYPE_SHORT = 3;
+
+    private ExifOrientation() {
+    }
+
+    /**
+     * @return giá trị 1..8; 1 (không xoay) nếu không phải JPEG, không có EXIF hoặc EXIF hỏng
+     */
+    public static int read(InputStream jpeg) throws IOException {
+        DataInputStream in = new DataInputStream(jpeg);
+        try {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return NORMAL;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                    // Hết phần header (SOS / EOI) hoặc file hỏng
+                    return NORMAL;
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return NORMAL;
+                }
+                if (marker == 0xFFE1) {
+                    byte[] segment = new byte[length];
+                    in.readFully(segment);
+                    int orientation = fromApp1(segment);
+                    if (orientation != 0) {
+                        return orientation;
+                    }
+                } else {
+                    in.skipNBytes(length);
+                }
+            }
+        } catch (EOFException e) {
+            return NORMAL;
+        }
+    }
+
+    /**
+     * Orientation trong một segment APP1, 0 nếu segment không phải EXIF hoặc không có tag.
+     */
+    static int fromApp1(byte[] segment) {
+        // "Exif\0\0" rồi tới header TIFF
+        if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f'
+                || segment[4] != 0 || segment[5] != 0) {
+            return 0;
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(segment, 6, segment.length - 6).slice();
+        if (tiff.get(0) == 'I' && tiff.get(1) == 'I') {
+            tiff.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (tiff.get(0) == 'M' && tiff.get(1) == 'M') {
+            tiff.order(ByteOrder.BIG_ENDIAN);
+        } else {
+            return 0;
+        }
+        if ((tiff.getShort(2) & 0xFFFF) != 42) {
+            return 0;
+        }
+        long ifd = tiff.getInt(4) & 0xFFFFFFFFL;
+        if (ifd + 2 > tiff.limit()) {
+            return 0;
+        }
+        int entries = tiff.getShort((int) ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > tiff.limit()) {
+                return 0;
+            }
+            if ((tiff.getShort(entry) & 0xFFFF) == TAG_ORIENTATION && (tiff.getShort(entry + 2) & 0xFFFF) == TYPE_SHORT) {
+                int value = tiff.getShort(entry + 8) & 0xFFFF;
+                return value >= 1 && value <= 8 ? value : 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Hướng 5..8 đổi chỗ chiều rộng và chiều cao.
+     */
+    public static boolean swapsDimensions(int orientation) {
+        return orientation >= 5 && orientation <= 8;
+    }
+
+    /**
+     * Phép biến đổi đưa ảnh kích thước width x height (theo pixel lưu trong file) về đúng chiều hiển thị.
+     */
+    public static AffineTransform transform(int orientation, int width, int height) {
+        return switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);         // lật ngang
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);   // xoay 180
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);        // lật dọc
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);              // lật ngang + xoay 270 (chuyển vị)
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);        // xoay 90 theo chiều kim đồng hồ
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width);   // lật ngang + xoay 90
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, width);         // xoay 270
+            default -> new AffineTransform();
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package ra.social_media.utils;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tách hashtag khỏi caption: "#" theo sau bởi chữ (kể cả tiếng Việt có dấu), số hoặc "_".
+ * Kết quả viết thường, bỏ trùng, giữ thứ tự xuất hiện.
+ */
+public final class Hashtags {
+
+    // Khớp với Tag.name (length = 100)
+    public static final int MAX_LENGTH = 100;
+
+    private static final Pattern HASHTAG = Pattern.compile("(?<![\\p{L}\\p{N}_&])#([\\p{L}\\p{M}\\p{N}_]+)");
+
+    private Hashtags() {
+    }
+
+    public static Set<String> extract(String text, int maxTags) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) {
+            return tags;
+        }
+        // NFC để "ă" gõ kiểu tổ hợp và dựng sẵn ra cùng một tag
+        Matcher matcher = HASHTAG.matcher(Normalizer.normalize(text, Normalizer.Form.NFC));
+        while (matcher.find() && tags.size() < maxTags) {
+            String tag = matcher.group(1).toLowerCase(Locale.ROOT);
+            // Tag toàn số (#1, #2024) thường là đánh số chứ không phải chủ đề
+            if (tag.length() <= MAX_LENGTH && !tag.chars().allMatch(Character::isDigit)) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+}
@@ -0,0 +1,106 @@
+package ra.social_media.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timing wheel nhiều tầng (kiểu bộ hẹn giờ của Linux kernel): mỗi tầng 64 ô, ô ở tầng i rộng 64^i tick.
+ * Thêm và lấy ra đều O(1); phần tử ở tầng cao được "đổ" xuống tầng thấp khi tới lượt.
+ * Không thread-safe ở mức phần tử, mọi thao tác được đồng bộ trên chính wheel.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final ArrayDeque<Timer<T>>[][] wheels;
+    private final List<Timer<T>> overflow = new ArrayList<>();
+    private final List<T> due = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.wheels = new ArrayDeque[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    public synchronized void schedule(T item, long deadlineMillis) {
+        // Làm tròn lên để phần tử không bao giờ được trả về trước hạn
+        long deadlineTick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        place(new Timer<>(item, deadlineTick));
+        size++;
+    }
+
+    /**
+     * Tiến tới thời điểm nowMillis và trả về các phần tử đã tới hạn.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>(due);
+        due.clear();
+
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            if ((currentTick & ((1L << (BITS * LEVELS)) - 1)) == 0) {
+                List<Timer<T>> pending = new ArrayList<>(overflow);
+                overflow.clear();
+                pending.forEach(this::place);
+            }
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(level, (int) ((currentTick >>> (BITS * level)) & MASK));
+                }
+            }
+            ArrayDeque<Timer<T>> slot = wheels[0][(int) (currentTick & MASK)];
+            for (Timer<T> timer : slot) {
+                expired.add(timer.item);
+            }
+            slot.clear();
+            expired.addAll(due);
+            due.clear();
+        }
+
+        size -= expired.size();
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void cascade(int level, int slotIndex) {
+        ArrayDeque<Timer<T>> slot = wheels[level][slotIndex];
+        List<Timer<T>> timers = new ArrayList<>(slot);
+        slot.clear();
+        timers.forEach(this::place);
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = timer.deadlineTick - currentTick;
+        if (delta <= 0) {
+            due.add(timer.item);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < (1L << (BITS * (level + 1)))) {
+                wheels[level][(int) ((timer.deadlineTick >>> (BITS * level)) & MASK)].add(timer);
+                return;
+            }
+        }
+        overflow.add(timer);
+    }
+
+    private record Timer<T>(T item, long deadlineTick) {
+    }
+}
@@ -0,0 +1,193 @@
+package ra.social_media.utils;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chỉ mục ngược trong bộ nhớ, xếp hạng BM25. Mỗi tài liệu (id long) gồm nhiều trường, mỗi trường có trọng số
+ * riêng (một từ trong trường trọng số 2 được tính như xuất hiện 2 lần). Cập nhật một trường chỉ thay từ của trường đó.
+ * Đọc song song được, ghi giữ write lock.
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Từ cuối của câu tìm được coi là tiền tố ("nguy" -> "nguyen", "nguyet"...), giới hạn số từ mở rộng
+    private static final int PREFIX_EXPANSION_MAX = 50;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Từ -> (id tài liệu -> tần suất đã nhân trọng số); TreeMap để tra tiền tố
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private long totalLength;
+
+    /**
+     * Thay toàn bộ từ của một trường; tokens rỗng nghĩa là xoá trường, tài liệu không còn trường nào thì bị xoá.
+     */
+    public void putField(long docId, String field, List<String> tokens, int weight) {
+        lock.writeLock().lock();
+        try {
+            Document document = documents.get(docId);
+            if (document == null) {
+                document = new Document();
+            } else {
+                unpost(docId, document);
+            }
+            if (tokens.isEmpty()) {
+                document.fields.remove(field);
+            } else {
+                document.fields.put(field, new Field(tokens.toArray(new String[0]), weight));
+            }
+            if (document.fields.isEmpty()) {
+                documents.remove(docId);
+                return;
+            }
+            post(docId, document);
+            documents.put(docId, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long docId) {
+        lock.writeLock().lock();
+        try {
+            Document document = documents.remove(docId);
+            if (document != null) {
+                unpost(docId, document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tài liệu chứa mọi từ của câu tìm (từ cuối so khớp tiền tố), limit kết quả điểm cao nhất, điểm bằng nhau thì id lớn trước.
+     */
+    public List<Hit> search(List<String> terms, int limit) {
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / documentCount;
+
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                Map<Long, Double> termScores = scoreTerm(terms.get(i), i == terms.size() - 1, documentCount, averageLength);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // Giao: chỉ giữ tài liệu có cả từ này
+                    Map<Long, Double> merged = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double score = termScores.get(entry.getKey());
+                        if (score != null) {
+                            merged.put(entry.getKey(), entry.getValue() + score);
+                        }
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            Comparator<Hit> order = Comparator.comparingDouble(Hit::score).thenComparingLong(Hit::docId);
+            PriorityQueue<Hit> heap = new PriorityQueue<>(limit + 1, order);
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                heap.add(new Hit(entry.getKey(), entry.getValue()));
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(order.reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Điểm BM25 của một từ cho mọi tài liệu chứa nó; với tiền tố lấy điểm cao nhất trong các từ mở rộng
+    private Map<Long, Double> scoreTerm(String term, boolean prefix, int documentCount, double averageLength) {
+        Map<Long, Double> scores = new HashMap<>();
+        Collection<Map.Entry<String, Map<Long, Integer>>> matches;
+        if (prefix) {
+            matches = postings.subMap(term, true, term + Character.MAX_VALUE, true).entrySet();
+        } else {
+            Map<Long, Integer> exact = postings.get(term);
+            matches = exact == null ? List.of() : List.of(Map.entry(term, exact));
+        }
+
+        int expanded = 0;
+        for (Map.Entry<String, Map<Long, Integer>> match : matches) {
+            if (expanded++ >= PREFIX_EXPANSION_MAX) {
+                break;
+            }
+            Map<Long, Integer> docs = match.getValue();
+            double idf = Math.log(1 + (documentCount - docs.size() + 0.5) / (docs.size() + 0.5));
+            for (Map.Entry<Long, Integer> posting : docs.entrySet()) {
+                int tf = posting.getValue();
+                int length = documents.get(posting.getKey()).length;
+                double score = idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+                scores.merge(posting.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private void post(long docId, Document document) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (Field field : document.fields.values()) {
+            for (String token : field.tokens()) {
+                frequencies.merge(token, field.weight(), Integer::sum);
+                length += field.weight();
+            }
+        }
+        document.terms = frequencies.keySet().toArray(new String[0]);
+        document.length = length;
+        totalLength += length;
+        frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, k -> new HashMap<>()).put(docId, tf));
+    }
+
+    private void unpost(long docId, Document document) {
+        for (String term : document.terms) {
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(docId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= document.length;
+    }
+
+    public record Hit(long docId, double score) {
+    }
+
+    private record Field(String[] tokens, int weight) {
+    }
+
+    private static final class Document {
+        private final Map<String, Field> fields = new HashMap<>(4);
+        // Các từ khác nhau đang nằm trong postings, để gỡ ra khi cập nhật
+        private String[] terms = new String[0];
+        private int length;
+    }
+}
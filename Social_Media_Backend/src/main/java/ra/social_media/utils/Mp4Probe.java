@@ -0,0 +1,237 @@
+package ra.social_media.utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Đọc metadata của file MP4 / MOV (ISO-BMFF) mà không nạp file vào bộ nhớ.
+ * Chỉ đọc header của các box qua SeekableByteChannel, box lớn như mdat được nhảy qua bằng position(),
+ * nên chi phí không phụ thuộc kích thước video.
+ */
+public final class Mp4Probe {
+
+    private static final Set<String> TOP_LEVEL_TYPES = Set.of("ftyp", "moov", "mdat", "free", "skip", "wide", "uuid", "meta", "pdin", "moof", "mfra", "styp", "sidx");
+    private static final int MAX_DEPTH = 8;
+    private static final int MAX_BOXES = 10_000;
+
+    private Mp4Probe() {
+    }
+
+    public record Mp4Metadata(int width, int height, long durationMs) {
+    }
+
+    /**
+     * Lỗi khi file không phải ISO-BMFF hợp lệ hoặc thiếu thông tin cần thiết.
+     */
+    public static class InvalidMp4Exception extends IOException {
+        public InvalidMp4Exception(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Kiểm tra nhanh box đầu tiên, dùng để loại file sai định dạng ngay khi nhận chunk đầu.
+     */
+    public static boolean looksLikeIsoBmff(SeekableByteChannel channel) throws IOException {
+        if (channel.size() < 8) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(8);
+        readFully(channel, header, 0);
+        return TOP_LEVEL_TYPES.contains(typeOf(header.getInt(4)));
+    }
+
+    public static Mp4Metadata probe(SeekableByteChannel channel) throws IOException {
+        Probe probe = new Probe(channel);
+        long fileSize = channel.size();
+        long position = 0;
+        boolean first = true;
+        while (position < fileSize) {
+            Box box = probe.readBox(position, fileSize);
+            if (first && !TOP_LEVEL_TYPES.contains(box.type)) {
+                throw new InvalidMp4Exception("Không phải file MP4 hợp lệ");
+            }
+            first = false;
+            if (box.type.equals("moov")) {
+                probe.parseContainer(box, 1);
+                break;
+            }
+            position = box.end;
+        }
+
+        if (probe.timescale <= 0) {
+            throw new InvalidMp4Exception("Không tìm thấy thông tin thời lượng (mvhd)");
+        }
+        if (probe.width <= 0 || probe.height <= 0) {
+            throw new InvalidMp4Exception("Không tìm thấy track video");
+        }
+        return new Mp4Metadata(probe.width, probe.height, durationMillis(probe.duration, probe.timescale));
+    }
+
+    // duration của mvhd bản 1 là 64 bit: nhân thẳng với 1000 có thể tràn thành số âm
+    private static long durationMillis(long duration, long timescale) throws InvalidMp4Exception {
+        long millis;
+        try {
+            millis = Math.addExact(Math.multiplyExact(duration / timescale, 1000L), duration % timescale * 1000 / timescale);
+        } catch (ArithmeticException e) {
+            throw new InvalidMp4Exception("Thời lượng không hợp lệ");
+        }
+        if (millis < 0) {
+            throw new InvalidMp4Exception("Thời lượng không hợp lệ");
+        }
+        return millis;
+    }
+
+    private static final class Probe {
+        private final SeekableByteChannel channel;
+        private final ByteBuffer header = ByteBuffer.allocate(16);
+        private int boxes;
+
+        private long timescale;
+        private long duration;
+        private int width;
+        private int height;
+
+        // Kích thước của tkhd trong track hiện tại, chỉ dùng nếu hdlr của track là 'vide'
+        private int trackWidth;
+        private int trackHeight;
+        private boolean trackIsVideo;
+
+        Probe(SeekableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        Box readBox(long position, long limit) throws IOException {
+            if (++boxes > MAX_BOXES) {
+                throw new InvalidMp4Exception("File có quá nhiều box");
+            }
+            if (limit - position < 8) {
+                throw new InvalidMp4Exception("Box bị cắt cụt");
+            }
+            header.clear().limit(8);
+            readFully(channel, header, position);
+            long size = header.getInt(0) & 0xFFFFFFFFL;
+            String type = typeOf(header.getInt(4));
+            long headerSize = 8;
+            if (size == 1) {
+                header.clear().limit(8);
+                readFully(channel, header, position + 8);
+                size = header.getLong(0);
+                headerSize = 16;
+            } else if (size == 0) {
+                size = limit - position;
+            }
+            if (size < headerSize || size > limit - position) {
+                throw new InvalidMp4Exception("Kích thước box '" + type + "' không hợp lệ");
+            }
+            return new Box(type, position + headerSize, position + size);
+        }
+
+        void parseContainer(Box container, int depth) throws IOException {
+            if (depth > MAX_DEPTH) {
+                throw new InvalidMp4Exception("Box lồng nhau quá sâu");
+            }
+            long position = container.payload;
+            while (position < container.end) {
+                Box box = readBox(position, container.end);
+                switch (box.type) {
+                    case "trak" -> {
+                        trackWidth = 0;
+                        trackHeight = 0;
+                        trackIsVideo = false;
+                        parseContainer(box, depth + 1);
+                        if (trackIsVideo && width == 0 && trackWidth > 0 && trackHeight > 0) {
+                            width = trackWidth;
+                            height = trackHeight;
+                        }
+                    }
+                    case "mdia" -> parseContainer(box, depth + 1);
+                    case "mvhd" -> parseMvhd(box);
+                    case "tkhd" -> parseTkhd(box);
+                    case "hdlr" -> parseHdlr(box);
+                    default -> {
+                        // Bỏ qua các box khác (stbl, udta, ...) mà không đọc nội dung
+                    }
+                }
+                position = box.end;
+            }
+        }
+
+        private void parseMvhd(Box box) throws IOException {
+            ByteBuffer buffer = readPayload(box, 32);
+            int version = buffer.limit() > 0 ? buffer.get(0) & 0xFF : -1;
+            if (buffer.limit() < (version == 1 ? 32 : 20)) {
+                throw new InvalidMp4Exception("Box mvhd bị cắt cụt");
+            }
+            if (version == 1) {
+                timescale = buffer.getInt(20) & 0xFFFFFFFFL;
+                duration = buffer.getLong(24);
+            } else {
+                timescale = buffer.getInt(12) & 0xFFFFFFFFL;
+                duration = buffer.getInt(16) & 0xFFFFFFFFL;
+            }
+            if (duration < 0) {
+                throw new InvalidMp4Exception("Thời lượng không hợp lệ");
+            }
+        }
+
+        private void parseTkhd(Box box) throws IOException {
+            ByteBuffer buffer = readPayload(box, 96);
+            int version = buffer.limit() > 0 ? buffer.get(0) & 0xFF : -1;
+            int matrixOffset = version == 1 ? 52 : 40;
+            int sizeOffset = matrixOffset + 36;
+            if (buffer.limit() < sizeOffset + 8) {
+                throw new InvalidMp4Exception("Box tkhd bị cắt cụt");
+            }
+            // width / height dạng fixed-point 16.16
+            int w = buffer.getInt(sizeOffset) >>> 16;
+            int h = buffer.getInt(sizeOffset + 4) >>> 16;
+            // Video quay dọc trên điện thoại được lưu ngang kèm ma trận xoay 90/270 độ: a = d = 0
+            int a = buffer.getInt(matrixOffset);
+            int d = buffer.getInt(matrixOffset + 16);
+            if (a == 0 && d == 0) {
+                trackWidth = h;
+                trackHeight = w;
+            } else {
+                trackWidth = w;
+                trackHeight = h;
+            }
+        }
+
+        private void parseHdlr(Box box) throws IOException {
+            ByteBuffer buffer = readPayload(box, 12);
+            if (buffer.limit() >= 12) {
+                trackIsVideo = typeOf(buffer.getInt(8)).equals("vide");
+            }
+        }
+
+        private ByteBuffer readPayload(Box box, int max) throws IOException {
+            int length = (int) Math.min(max, box.end - box.payload);
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            readFully(channel, buffer, box.payload);
+            return buffer;
+        }
+    }
+
+    private record Box(String type, long payload, long end) {
+    }
+
+    private static void readFully(SeekableByteChannel channel, ByteBuffer buffer, long position) throws IOException {
+        channel.position(position);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Kết thúc file bất ngờ");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static String typeOf(int fourcc) {
+        byte[] bytes = {(byte) (fourcc >>> 24), (byte) (fourcc >>> 16), (byte) (fourcc >>> 8), (byte) fourcc};
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
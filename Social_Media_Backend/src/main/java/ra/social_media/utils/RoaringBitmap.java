@@ -0,0 +1,231 @@
+package ra.social_media.utils;
+
+import java.util.Arrays;
+
+/**
+ * Tập số nguyên 32 bit không dấu nén kiểu Roaring: chia theo 16 bit cao thành các khối,
+ * khối thưa (<= 4096 phần tử) lưu mảng char đã sắp xếp, khối dày lưu bitmap 65536 bit (8KB).
+ * Không an toàn đa luồng, người gọi tự đồng bộ.
+ */
+public class RoaringBitmap {
+
+    // Quá ngưỡng này mảng char (2 byte/phần tử) tốn bộ nhớ hơn bitmap 8KB
+    private static final int ARRAY_MAX = 4096;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    public static boolean fits(long value) {
+        return value >= 0 && value <= 0xFFFFFFFFL;
+    }
+
+    /**
+     * @return true nếu value chưa có trong tập
+     */
+    public boolean add(long value) {
+        if (!fits(value)) {
+            throw new IllegalArgumentException("value out of range: " + value);
+        }
+        char high = (char) (value >>> 16);
+        char low = (char) value;
+        int index = indexOf(high);
+        if (index < 0) {
+            insertContainer(-index - 1, high, new ArrayContainer());
+            index = -index - 1;
+        }
+        Container container = containers[index];
+        if (container instanceof ArrayContainer array && array.cardinality >= ARRAY_MAX) {
+            if (array.contains(low)) {
+                return false;
+            }
+            container = array.toBitmap();
+            containers[index] = container;
+        }
+        return container.add(low);
+    }
+
+    /**
+     * @return true nếu value có trong tập trước khi xoá
+     */
+    public boolean remove(long value) {
+        if (!fits(value)) {
+            return false;
+        }
+        int index = indexOf((char) (value >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        Container container = containers[index];
+        if (!container.remove((char) value)) {
+            return false;
+        }
+        if (container.cardinality == 0) {
+            removeContainer(index);
+        } else if (container instanceof BitmapContainer bitmap && bitmap.cardinality <= ARRAY_MAX / 2) {
+            // Chỉ đổi lại về mảng khi đã thưa hẳn, tránh đổi qua đổi lại quanh ngưỡng
+            containers[index] = bitmap.toArray();
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (!fits(value)) {
+            return false;
+        }
+        int index = indexOf((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public long cardinality() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].cardinality;
+        }
+        return total;
+    }
+
+    // Ước lượng bộ nhớ phần dữ liệu, dùng cho metrics
+    public long sizeInBytes() {
+        long total = (long) keys.length * Character.BYTES;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].sizeInBytes();
+        }
+        return total;
+    }
+
+    private int indexOf(char high) {
+        return Arrays.binarySearch(keys, 0, size, high);
+    }
+
+    private void insertContainer(int index, char high, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = high;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    private abstract static class Container {
+        int cardinality;
+
+        abstract boolean add(char low);
+
+        abstract boolean remove(char low);
+
+        abstract boolean contains(char low);
+
+        abstract long sizeInBytes();
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values = new char[4];
+
+        @Override
+        boolean add(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                return false;
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = low;
+            cardinality++;
+            return true;
+        }
+
+        @Override
+        boolean remove(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+            return true;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return (long) values.length * Character.BYTES;
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words = new long[1 << 10];
+
+        @Override
+        boolean add(char low) {
+            long mask = 1L << low;
+            int word = low >>> 6;
+            if ((words[word] & mask) != 0) {
+                return false;
+            }
+            words[word] |= mask;
+            cardinality++;
+            return true;
+        }
+
+        @Override
+        boolean remove(char low) {
+            long mask = 1L << low;
+            int word = low >>> 6;
+            if ((words[word] & mask) == 0) {
+                return false;
+            }
+            words[word] &= ~mask;
+            cardinality--;
+            return true;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return (long) words.length * Long.BYTES;
+        }
+
+        ArrayContainer toArray() {
+            ArrayContainer array = new ArrayContainer();
+            array.values = new char[Math.max(4, cardinality)];
+            for (int word = 0; word < words.length; word++) {
+                long bits = words[word];
+                while (bits != 0) {
+                    array.values[array.cardinality++] = (char) ((word << 6) + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            return array;
+        }
+    }
+}
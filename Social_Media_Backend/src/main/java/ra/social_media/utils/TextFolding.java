@@ -0,0 +1,57 @@
+package ra.social_media.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Chuẩn hoá chữ cho tìm kiếm: viết thường, bỏ dấu tiếng Việt ("Đà Nẵng" -> "da nang"),
+ * tách từ theo ký tự không phải chữ/số. Dùng chung cho lúc index và lúc tìm nên hai bên luôn khớp.
+ */
+public final class TextFolding {
+
+    // Từ dài hơn thường là URL / chuỗi rác, không đáng đưa vào từ điển
+    private static final int MAX_TOKEN_LENGTH = 40;
+
+    private TextFolding() {
+    }
+
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            // đ/Đ là chữ riêng, không tách được thành d + dấu
+            if (c == 'đ' || c == 'Đ') {
+                c = 'd';
+            }
+            folded.append(c);
+        }
+        return folded.toString().toLowerCase(Locale.ROOT);
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean word = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                if (i - start <= MAX_TOKEN_LENGTH) {
+                    tokens.add(folded.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,169 @@
+package ra.social_media.utils;
+
+/**
+ * Ring buffer cố định dung lượng chứa các cặp (createdAt, postId) bằng mảng long nguyên thuỷ,
+ * luôn sắp xếp tăng dần theo (createdAt, postId). Đầy thì bỏ phần tử cũ nhất.
+ * Đọc một trang là tìm nhị phân vị trí con trỏ rồi lấy liên tiếp, không phụ thuộc độ dài buffer.
+ */
+public class TimelineBuffer {
+
+    private final long[] createdAts;
+    private final long[] postIds;
+    private int head;   // vị trí vật lý của phần tử cũ nhất
+    private int size;
+    // Đã từng bỏ phần tử vì đầy: các bài cũ hơn phần tử cũ nhất có thể vẫn còn trong DB
+    private boolean truncated;
+
+    public TimelineBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.createdAts = new long[capacity];
+        this.postIds = new long[capacity];
+    }
+
+    public synchronized void add(long createdAt, long postId) {
+        int capacity = createdAts.length;
+        if (size == capacity) {
+            // Bài mới còn cũ hơn cả phần tử cũ nhất thì không giữ
+            if (compare(createdAt, postId, 0) < 0) {
+                truncated = true;
+                return;
+            }
+            head = (head + 1) % capacity;
+            size--;
+            truncated = true;
+        }
+
+        // Bài đến gần như theo thứ tự thời gian nên chỉ cần dịch vài phần tử từ cuối
+        int i = size;
+        while (i > 0) {
+            int cmp = compare(createdAt, postId, i - 1);
+            if (cmp == 0) {
+                // Đã có (fan-out trùng với rebuild)
+                compactFrom(i);
+                return;
+            }
+            if (cmp > 0) {
+                break;
+            }
+            copy(i - 1, i);
+            i--;
+        }
+        int slot = physical(i);
+        createdAts[slot] = createdAt;
+        postIds[slot] = postId;
+        size++;
+    }
+
+    /**
+     * Trả về tối đa limit postId mới nhất nằm trước con trỏ (createdAt, postId), mới nhất trước.
+     * beforeCreatedAt = Long.MAX_VALUE để lấy từ đầu.
+     */
+    public synchronized long[] sliceBefore(long beforeCreatedAt, long beforePostId, int limit) {
+        int end = lowerBound(beforeCreatedAt, beforePostId);
+        int count = Math.min(limit, end);
+        long[] result = new long[count];
+        for (int k = 0; k < count; k++) {
+            result[k] = postIds[physical(end - 1 - k)];
+        }
+        return result;
+    }
+
+    /**
+     * Như sliceBefore nhưng trả về cả createdAt: mảng [createdAt0, postId0, createdAt1, postId1, ...], mới nhất trước.
+     * Dùng khi cần trộn nhiều buffer theo thời gian.
+     */
+    public synchronized long[] sliceEntriesBefore(long beforeCreatedAt, long beforePostId, int limit) {
+        int end = lowerBound(beforeCreatedAt, beforePostId);
+        int count = Math.min(limit, end);
+        long[] result = new long[count * 2];
+        for (int k = 0; k < count; k++) {
+            int slot = physical(end - 1 - k);
+            result[2 * k] = createdAts[slot];
+            result[2 * k + 1] = postIds[slot];
+        }
+        return result;
+    }
+
+    public synchronized void remove(long postId) {
+        for (int i = 0; i < size; i++) {
+            if (postIds[physical(i)] == postId) {
+                for (int j = i; j < size - 1; j++) {
+                    copy(j + 1, j);
+                }
+                size--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * createdAt của phần tử cũ nhất, hoặc Long.MIN_VALUE nếu rỗng.
+     */
+    public synchronized long oldestCreatedAt() {
+        return size == 0 ? Long.MIN_VALUE : createdAts[head];
+    }
+
+    /**
+     * postId của phần tử cũ nhất, hoặc Long.MIN_VALUE nếu rỗng.
+     */
+    public synchronized long oldestPostId() {
+        return size == 0 ? Long.MIN_VALUE : postIds[head];
+    }
+
+    public synchronized boolean isTruncated() {
+        return truncated;
+    }
+
+    public synchronized void markTruncated() {
+        truncated = true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return createdAts.length;
+    }
+
+    // Phần tử ở vị trí logic i đã bị dịch lên i+1.. trong lúc tìm chỗ chèn, kéo chúng về lại
+    private void compactFrom(int i) {
+        for (int j = i; j < size; j++) {
+            copy(j + 1, j);
+        }
+    }
+
+    // Vị trí logic của phần tử đầu tiên >= con trỏ, các phần tử trước nó đều cũ hơn con trỏ
+    private int lowerBound(long createdAt, long postId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(createdAt, postId, mid) > 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compare(long createdAt, long postId, int logical) {
+        int slot = physical(logical);
+        int cmp = Long.compare(createdAt, createdAts[slot]);
+        return cmp != 0 ? cmp : Long.compare(postId, postIds[slot]);
+    }
+
+    private void copy(int fromLogical, int toLogical) {
+        int from = physical(fromLogical);
+        int to = physical(toLogical);
+        createdAts[to] = createdAts[from];
+        postIds[to] = postIds[from];
+    }
+
+    private int physical(int logical) {
+        return (head + logical) % createdAts.length;
+    }
+}
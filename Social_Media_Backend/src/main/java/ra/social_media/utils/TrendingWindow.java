@@ -0,0 +1,49 @@
+package ra.social_media.utils;
+
+import ra.social_media.exception.HttpBadRequest;
+
+/**
+ * Cửa sổ trượt của bảng hashtag thịnh hành: chia thành bucketCount khối bucketMillis,
+ * điểm mỗi khối giảm một nửa sau mỗi halfLifeMillis để khối mới nặng ký hơn.
+ */
+public enum TrendingWindow {
+    HOUR("1h", 5 * 60_000L, 12, 20 * 60_000L),
+    DAY("24h", 60 * 60_000L, 24, 6 * 60 * 60_000L);
+
+    private final String code;
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final long halfLifeMillis;
+
+    TrendingWindow(String code, long bucketMillis, int bucketCount, long halfLifeMillis) {
+        this.code = code;
+        this.bucketMillis = bucketMillis;
+        this.bucketCount = bucketCount;
+        this.halfLifeMillis = halfLifeMillis;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    public long getHalfLifeMillis() {
+        return halfLifeMillis;
+    }
+
+    public static TrendingWindow fromCode(String code) {
+        for (TrendingWindow window : values()) {
+            if (window.code.equalsIgnoreCase(code)) {
+                return window;
+            }
+        }
+        throw new HttpBadRequest("window phải là 1h hoặc 24h");
+    }
+}
@@ -0,0 +1,92 @@
+package ra.social_media.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ra.social_media.security.principal.UserPrincipal;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chi phí CPU của việc xác thực access token mỗi request: lần đầu gặp token (verify HMAC + parse JSON)
+ * so với lần sau (trúng cache theo SHA-256 của token), cùng cách cũ dựng parser mới và parse hai lần mỗi request.
+ * Chạy bằng ./gradlew benchmark.
+ */
+@Tag("benchmark")
+class JWTProviderBenchmark {
+
+    private static final String SECRET = "superSecretKeyAndUniqueMustBeProtectedVeryStrictfullyAndDoNotRevealAtAnyCost";
+    private static final int TOKENS = 20_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void cachedVersusUncachedParse() {
+        JWTProvider provider = new JWTProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpire", 3_600_000L);
+        ReflectionTestUtils.setField(provider, "jwtRefresh", 604_800_000L);
+        // Đủ chỗ cho mọi token: lượt đầu toàn miss, các lượt sau toàn hit
+        ReflectionTestUtils.setField(provider, "jwtCacheSize", TOKENS * 2);
+        provider.init();
+
+        String[] tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            UserPrincipal principal = UserPrincipal.builder()
+                    .id((long) i)
+                    .username("user" + i)
+                    .fullName("User " + i)
+                    .email("user" + i + "@example.com")
+                    .isActive(true)
+                    .build();
+            tokens[i] = provider.generateAccessToken(principal, "session-" + i);
+        }
+
+        // Hâm nóng JIT trên cách cũ, không chạm cache của provider
+        for (int i = 0; i < 2_000; i++) {
+            legacyParse(tokens[i]);
+        }
+
+        long start = System.nanoTime();
+        for (String token : tokens) {
+            assertNotNull(legacyParse(token));
+        }
+        double legacy = (System.nanoTime() - start) / (double) TOKENS;
+
+        start = System.nanoTime();
+        for (String token : tokens) {
+            assertNotNull(provider.parseAccessToken(token));
+        }
+        double uncached = (System.nanoTime() - start) / (double) TOKENS;
+
+        start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (String token : tokens) {
+                assertNotNull(provider.parseAccessToken(token));
+            }
+        }
+        double cached = (System.nanoTime() - start) / (double) (TOKENS * ROUNDS);
+
+        System.out.printf("parseAccessToken: legacy (new parser, 2 parses) %8.0f ns/op, uncached %8.0f ns/op, cached %6.0f ns/op (%.1fx)%n",
+                legacy, uncached, cached, uncached / cached);
+        assertTrue(cached < uncached);
+    }
+
+    // Cách cũ: validateAccessToken rồi getUsernameFromToken, mỗi lần dựng key + parser mới
+    private static String legacyParse(String token) {
+        Claims claims = Jwts.parser().verifyWith(legacyKey()).build().parseSignedClaims(token).getPayload();
+        if (!"access".equals(claims.get("type"))) {
+            return null;
+        }
+        return Jwts.parser().verifyWith(legacyKey()).build().parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    private static SecretKey legacyKey() {
+        return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,216 @@
+package ra.social_media.service.impl;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ra.social_media.utils.TimelineBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * So sánh fan-out khi ghi với hybrid (tác giả nhiều follower được kéo lúc đọc) như TimelineServiceImpl đang làm,
+ * trên đồ thị follow giả lập với các phân bố follower khác nhau. Chỉ dùng TimelineBuffer, không cần DB.
+ * Đo số lần ghi vào buffer cho mỗi bài (write amplification) và thời gian đọc một trang home timeline.
+ * Chạy bằng ./gradlew benchmark, không nằm trong ./gradlew test.
+ */
+@Tag("benchmark")
+class TimelineFanoutBenchmark {
+
+    private static final int USERS = 5_000;
+    private static final int FOLLOWING_PER_USER = 40;
+    private static final int POSTS = 20_000;
+    private static final int HOME_CAPACITY = 200;
+    private static final int CELEBRITY_CAPACITY = 200;
+    private static final int CELEBRITY_THRESHOLD = 500;
+    private static final int PAGE = 20;
+    private static final int READS = 20_000;
+
+    @Test
+    void uniformFollowers() {
+        run("uniform", 0.0);
+    }
+
+    @Test
+    void skewedFollowers() {
+        run("zipf s=0.8", 0.8);
+    }
+
+    @Test
+    void heavilySkewedFollowers() {
+        run("zipf s=1.2", 1.2);
+    }
+
+    private void run(String distribution, double skew) {
+        Random random = new Random(2025);
+        Graph graph = Graph.generate(random, skew);
+
+        TimelineBuffer[] fanoutHomes = buffers(USERS, HOME_CAPACITY);
+        TimelineBuffer[] hybridHomes = buffers(USERS, HOME_CAPACITY);
+        TimelineBuffer[] authorBuffers = new TimelineBuffer[USERS];
+        boolean[] celebrity = new boolean[USERS];
+        for (int author = 0; author < USERS; author++) {
+            celebrity[author] = graph.followers[author].length >= CELEBRITY_THRESHOLD;
+            if (celebrity[author]) {
+                authorBuffers[author] = new TimelineBuffer(CELEBRITY_CAPACITY);
+            }
+        }
+
+        long fanoutWrites = 0;
+        long hybridWrites = 0;
+        // Bài của tác giả đông follower nhất: một lần ghi chặn thread fan-out lâu nhất
+        int fanoutMaxWrites = 0;
+        int hybridMaxWrites = 0;
+        long fanoutNanos = 0;
+        long hybridNanos = 0;
+        for (long postId = 1; postId <= POSTS; postId++) {
+            int author = random.nextInt(USERS);
+            long createdAt = postId * 1_000;
+            int[] followers = graph.followers[author];
+
+            long start = System.nanoTime();
+            for (int follower : followers) {
+                fanoutHomes[follower].add(createdAt, postId);
+            }
+            fanoutNanos += System.nanoTime() - start;
+            fanoutWrites += followers.length;
+            fanoutMaxWrites = Math.max(fanoutMaxWrites, followers.length);
+
+            start = System.nanoTime();
+            if (celebrity[author]) {
+                authorBuffers[author].add(createdAt, postId);
+                hybridWrites++;
+                hybridMaxWrites = Math.max(hybridMaxWrites, 1);
+            } else {
+                for (int follower : followers) {
+                    hybridHomes[follower].add(createdAt, postId);
+                }
+                hybridWrites += followers.length;
+                hybridMaxWrites = Math.max(hybridMaxWrites, followers.length);
+            }
+            hybridNanos += System.nanoTime() - start;
+        }
+
+        int[][] celebritiesFollowed = new int[USERS][];
+        for (int user = 0; user < USERS; user++) {
+            celebritiesFollowed[user] = Arrays.stream(graph.following[user]).filter(a -> celebrity[a]).toArray();
+        }
+
+        // Hâm nóng JIT trước khi đo, đồng thời kiểm tra hai cách cho cùng một trang
+        for (int user = 0; user < USERS; user++) {
+            long[] expected = fanoutHomes[user].sliceBefore(Long.MAX_VALUE, Long.MAX_VALUE, PAGE);
+            List<Long> actual = hybridPage(hybridHomes[user], authorBuffers, celebritiesFollowed[user]);
+            assertEquals(Arrays.stream(expected).boxed().toList(), actual, "user " + user);
+        }
+
+        long[] fanoutReads = new long[READS];
+        long[] hybridReads = new long[READS];
+        long sink = 0;
+        for (int i = 0; i < READS; i++) {
+            int user = random.nextInt(USERS);
+            long start = System.nanoTime();
+            sink += fanoutHomes[user].sliceBefore(Long.MAX_VALUE, Long.MAX_VALUE, PAGE).length;
+            fanoutReads[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            sink += hybridPage(hybridHomes[user], authorBuffers, celebritiesFollowed[user]).size();
+            hybridReads[i] = System.nanoTime() - start;
+        }
+        assertTrue(sink > 0);
+
+        int celebrities = 0;
+        for (boolean c : celebrity) {
+            celebrities += c ? 1 : 0;
+        }
+        System.out.printf("%-12s max followers %5d, celebrities %3d%n", distribution, graph.maxFollowers(), celebrities);
+        System.out.printf("  fan-out: %6.1f writes/post (max %5d), write %7.1f us/post, read p50 %6.2f us p99 %6.2f us%n",
+                (double) fanoutWrites / POSTS, fanoutMaxWrites, fanoutNanos / 1e3 / POSTS, percentile(fanoutReads, 0.5), percentile(fanoutReads, 0.99));
+        System.out.printf("  hybrid : %6.1f writes/post (max %5d), write %7.1f us/post, read p50 %6.2f us p99 %6.2f us%n",
+                (double) hybridWrites / POSTS, hybridMaxWrites, hybridNanos / 1e3 / POSTS, percentile(hybridReads, 0.5), percentile(hybridReads, 0.99));
+
+        assertTrue(hybridWrites <= fanoutWrites);
+        assertTrue(hybridMaxWrites < CELEBRITY_THRESHOLD);
+    }
+
+    // Trộn bằng chính TimelineServiceImpl.merge (heap trên k nguồn, bỏ trùng) như lúc đọc home timeline
+    private static List<Long> hybridPage(TimelineBuffer home, TimelineBuffer[] authorBuffers, int[] celebrities) {
+        List<long[]> sources = new ArrayList<>(celebrities.length + 1);
+        sources.add(home.sliceEntriesBefore(Long.MAX_VALUE, Long.MAX_VALUE, PAGE));
+        for (int author : celebrities) {
+            sources.add(authorBuffers[author].sliceEntriesBefore(Long.MAX_VALUE, Long.MAX_VALUE, PAGE));
+        }
+        return TimelineServiceImpl.merge(sources, PAGE);
+    }
+
+    private static TimelineBuffer[] buffers(int count, int capacity) {
+        TimelineBuffer[] buffers = new TimelineBuffer[count];
+        for (int i = 0; i < count; i++) {
+            buffers[i] = new TimelineBuffer(capacity);
+        }
+        return buffers;
+    }
+
+    private static double percentile(long[] nanos, double p) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)))] / 1e3;
+    }
+
+    private record Graph(int[][] followers, int[][] following) {
+
+        // Mỗi user follow FOLLOWING_PER_USER tác giả khác nhau; xác suất chọn tác giả hạng r tỉ lệ 1 / r^skew
+        static Graph generate(Random random, double skew) {
+            double[] cumulative = new double[USERS];
+            double total = 0;
+            for (int rank = 0; rank < USERS; rank++) {
+                total += 1 / Math.pow(rank + 1, skew);
+                cumulative[rank] = total;
+            }
+
+            int[][] following = new int[USERS][];
+            int[] followerCounts = new int[USERS];
+            for (int user = 0; user < USERS; user++) {
+                int[] authors = new int[FOLLOWING_PER_USER];
+                int count = 0;
+                while (count < FOLLOWING_PER_USER) {
+                    int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                    int author = index >= 0 ? index : Math.min(USERS - 1, -index - 1);
+                    if (author == user || contains(authors, count, author)) {
+                        continue;
+                    }
+                    authors[count++] = author;
+                    followerCounts[author]++;
+                }
+                following[user] = authors;
+            }
+
+            int[][] followers = new int[USERS][];
+            for (int author = 0; author < USERS; author++) {
+                followers[author] = new int[followerCounts[author]];
+            }
+            int[] filled = new int[USERS];
+            for (int user = 0; user < USERS; user++) {
+                for (int author : following[user]) {
+                    followers[author][filled[author]++] = user;
+                }
+            }
+            return new Graph(followers, following);
+        }
+
+        int maxFollowers() {
+            return Arrays.stream(followers).mapToInt(f -> f.length).max().orElse(0);
+        }
+
+        private static boolean contains(int[] values, int count, int value) {
+            for (int i = 0; i < count; i++) {
+                if (values[i] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ra.social_media.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+
+    @Test
+    void rejectsNonPositiveDimensions() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(16, 0));
+    }
+
+    @Test
+    void neverUnderestimatesAndErrorStaysWithinBound() {
+        int width = 2048;
+        CountMinSketch sketch = new CountMinSketch(width, 5);
+        Map<String, Integer> actual = new HashMap<>();
+        Random random = new Random(7);
+        long total = 0;
+        for (int i = 0; i < 200_000; i++) {
+            // Phân bố lệch: vài hashtag rất hot, đa số hiếm
+            String tag = "tag" + (int) Math.pow(random.nextInt(1 << 14), 1.5) / 64;
+            sketch.add(tag, 1);
+            actual.merge(tag, 1, Integer::sum);
+            total++;
+        }
+
+        double bound = Math.E * total / width;
+        int withinBound = 0;
+        for (Map.Entry<String, Integer> entry : actual.entrySet()) {
+            int estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), entry.getKey());
+            if (estimate - entry.getValue() <= bound) {
+                withinBound++;
+            }
+        }
+        // Xác suất vượt cận là e^-depth ~ 0.7%
+        assertTrue(withinBound >= actual.size() * 0.98, withinBound + "/" + actual.size());
+    }
+
+    @Test
+    void clearResetsCounts() {
+        CountMinSketch sketch = new CountMinSketch(64, 3);
+        assertEquals(0, sketch.estimate("java"));
+        sketch.add("java", 5);
+        assertEquals(5, sketch.estimate("java"));
+        sketch.clear();
+        assertEquals(0, sketch.estimate("java"));
+    }
+
+    @Test
+    void roundTripsThroughDataStreams() throws IOException {
+        CountMinSketch sketch = new CountMinSketch(128, 4);
+        sketch.add("spring", 3);
+        sketch.add("boot", 11);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(new DataOutputStream(bytes));
+        CountMinSketch restored = CountMinSketch.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(128, restored.width());
+        assertEquals(4, restored.depth());
+        assertEquals(sketch.estimate("spring"), restored.estimate("spring"));
+        assertEquals(sketch.estimate("boot"), restored.estimate("boot"));
+        assertEquals(sketch.estimate("missing"), restored.estimate("missing"));
+    }
+}
@@ -0,0 +1,47 @@
+package ra.social_media.utils;
+
+import org.junit.jupiter.api.Test;
+import ra.social_media.exception.HttpBadRequest;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorCodecTest {
+
+    @Test
+    void roundTripsCreatedAtAndId() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 11, 5, 14, 30, 15, 123_456_000);
+        String cursor = CursorCodec.encode(createdAt, 42);
+        CursorCodec.Cursor decoded = CursorCodec.decode(cursor);
+        assertEquals(EpochMicros.of(createdAt), decoded.createdAt());
+        assertEquals(42, decoded.id());
+        assertEquals(createdAt, decoded.createdAtTime());
+        // base64url không đệm: an toàn khi đặt thẳng vào query string
+        assertFalse(cursor.contains("=") || cursor.contains("+") || cursor.contains("/"));
+    }
+
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertEquals(CursorCodec.START, CursorCodec.decode(null));
+        assertEquals(CursorCodec.START, CursorCodec.decode("  "));
+        assertEquals(CursorCodec.START_ASCENDING, CursorCodec.decode("", CursorCodec.START_ASCENDING));
+    }
+
+    @Test
+    void startCursorsMapToMysqlDatetimeRange() {
+        assertEquals(LocalDateTime.of(9999, 12, 31, 0, 0), CursorCodec.START.createdAtTime());
+        assertEquals(LocalDateTime.of(1000, 1, 1, 0, 0), CursorCodec.START_ASCENDING.createdAtTime());
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThrows(HttpBadRequest.class, () -> CursorCodec.decode("not base64!"));
+        assertThrows(HttpBadRequest.class, () -> CursorCodec.decode("AAAA"));
+
+        byte[] wrongVersion = ByteBuffer.allocate(17).put((byte) 9).putLong(1).putLong(2).array();
+        assertThrows(HttpBadRequest.class, () -> CursorCodec.decode(Base64.getUrlEncoder().encodeToString(wrongVersion)));
+    }
+}
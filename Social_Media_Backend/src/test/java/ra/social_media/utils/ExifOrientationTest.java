@@ -0,0 +1,86 @@
+package ra.social_media.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExifOrientationTest {
+
+    @Test
+    void readsOrientationFromBothByteOrders() {
+        assertEquals(6, ExifOrientation.fromApp1(exif(ByteOrder.LITTLE_ENDIAN, 6)));
+        assertEquals(8, ExifOrientation.fromApp1(exif(ByteOrder.BIG_ENDIAN, 8)));
+        assertEquals(0, ExifOrientation.fromApp1(exif(ByteOrder.BIG_ENDIAN, 42)));
+        assertEquals(0, ExifOrientation.fromApp1("http://ns.adobe.com/xap/1.0/\0".getBytes()));
+    }
+
+    @Test
+    void scansJpegSegmentsUntilExif() throws IOException {
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        jpeg.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xD8});
+        segment(jpeg, 0xFFE0, "JFIF\0\1\1\0\0\1\0\1\0\0".getBytes());
+        segment(jpeg, 0xFFE1, exif(ByteOrder.BIG_ENDIAN, 3));
+        segment(jpeg, 0xFFDA, new byte[10]);
+        assertEquals(3, ExifOrientation.read(new ByteArrayInputStream(jpeg.toByteArray())));
+    }
+
+    @Test
+    void defaultsToNormal() throws IOException {
+        assertEquals(ExifOrientation.NORMAL, ExifOrientation.read(new ByteArrayInputStream("\u0089PNG".getBytes())));
+        // JPEG không có EXIF
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        jpeg.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xD8});
+        segment(jpeg, 0xFFDB, new byte[64]);
+        segment(jpeg, 0xFFDA, new byte[10]);
+        assertEquals(ExifOrientation.NORMAL, ExifOrientation.read(new ByteArrayInputStream(jpeg.toByteArray())));
+        // File bị cắt giữa segment
+        assertEquals(ExifOrientation.NORMAL, ExifOrientation.read(new ByteArrayInputStream(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE1, 0x10})));
+    }
+
+    @Test
+    void transformKeepsImageInsideDisplayBounds() {
+        int width = 40;
+        int height = 30;
+        for (int orientation = 1; orientation <= 8; orientation++) {
+            Rectangle2D bounds = ExifOrientation.transform(orientation, width, height)
+                    .createTransformedShape(new Rectangle(0, 0, width, height)).getBounds2D();
+            boolean swapped = ExifOrientation.swapsDimensions(orientation);
+            assertEquals(new Rectangle(0, 0, swapped ? height : width, swapped ? width : height), bounds, "orientation " + orientation);
+        }
+    }
+
+    @Test
+    void rotatesClockwiseForOrientationSix() {
+        // Góc trên trái của ảnh lưu theo cảm biến thành góc trên phải khi hiển thị
+        Point2D topLeft = ExifOrientation.transform(6, 40, 30).transform(new Point2D.Double(0, 0), null);
+        assertEquals(new Point2D.Double(30, 0), topLeft);
+        Point2D topRight = ExifOrientation.transform(8, 40, 30).transform(new Point2D.Double(40, 0), null);
+        assertEquals(new Point2D.Double(0, 0), topRight);
+    }
+
+    private static byte[] exif(ByteOrder order, int orientation) {
+        ByteBuffer segment = ByteBuffer.allocate(6 + 8 + 2 + 12 + 4).order(order);
+        segment.put("Exif\0\0".getBytes());
+        segment.put(order == ByteOrder.LITTLE_ENDIAN ? "II".getBytes() : "MM".getBytes());
+        segment.putShort((short) 42).putInt(8);
+        segment.putShort((short) 1);
+        segment.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        segment.putInt(0);
+        return segment.array();
+    }
+
+    private static void segment(ByteArrayOutputStream jpeg, int marker, byte[] payload) {
+        ByteBuffer header = ByteBuffer.allocate(4).putShort((short) marker).putShort((short) (payload.length + 2));
+        jpeg.writeBytes(header.array());
+        jpeg.writeBytes(payload);
+    }
+}
@@ -0,0 +1,73 @@
+package ra.social_media.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void firesAtDeadlineNotBefore() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 0);
+        wheel.schedule("a", 1000);
+        assertEquals(1, wheel.size());
+        assertTrue(wheel.advance(999).isEmpty());
+        assertEquals(List.of("a"), wheel.advance(1000));
+        assertEquals(0, wheel.size());
+        assertTrue(wheel.advance(5000).isEmpty());
+    }
+
+    @Test
+    void roundsDeadlineUpToNextTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 0);
+        wheel.schedule("a", 1005);
+        assertTrue(wheel.advance(1005).isEmpty());
+        assertEquals(List.of("a"), wheel.advance(1010));
+    }
+
+    @Test
+    void pastDeadlineFiresOnNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 5000);
+        wheel.schedule("late", 100);
+        assertEquals(List.of("late"), wheel.advance(5000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void firesEachTimerInTheAdvanceThatCrossesItsDeadline() {
+        // tick 1ms: 64^4 tick ~ 4.6 giờ, deadline tới 2^25 tick để đi qua cả bốn tầng lẫn overflow
+        long start = 123_456;
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(1, start);
+        Random random = new Random(11);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            long deadline = start + 1 + switch (i % 4) {
+                case 0 -> random.nextInt(64);
+                case 1 -> random.nextInt(64 * 64);
+                case 2 -> random.nextInt(1 << 18);
+                default -> random.nextInt(1 << 25);
+            };
+            deadlines.put(i, deadline);
+            wheel.schedule(i, deadline);
+        }
+
+        long previous = start;
+        long end = start + (1 << 25) + 2;
+        while (previous < end) {
+            long now = Math.min(end, previous + 1 + random.nextInt(1 << 19));
+            for (Integer item : wheel.advance(now)) {
+                long deadline = deadlines.remove(item);
+                assertTrue(deadline <= now, "item " + item + " fired early");
+                assertTrue(deadline > previous, "item " + item + " fired late");
+            }
+            previous = now;
+        }
+        assertTrue(deadlines.isEmpty(), deadlines.size() + " timers never fired");
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,81 @@
+package ra.social_media.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private static List<Long> ids(List<InvertedIndex.Hit> hits) {
+        return hits.stream().map(InvertedIndex.Hit::docId).toList();
+    }
+
+    @Test
+    void requiresEveryTerm() {
+        InvertedIndex index = new InvertedIndex();
+        index.putField(1, "name", List.of("nguyen", "van", "an"), 1);
+        index.putField(2, "name", List.of("nguyen", "thi", "binh"), 1);
+        assertEquals(List.of(1L), ids(index.search(List.of("nguyen", "an"), 10)));
+        assertTrue(index.search(List.of("van", "binh"), 10).isEmpty());
+        assertTrue(index.search(List.of(), 10).isEmpty());
+        assertTrue(index.search(List.of("nguyen"), 0).isEmpty());
+    }
+
+    @Test
+    void onlyLastTermMatchesAsPrefix() {
+        InvertedIndex index = new InvertedIndex();
+        index.putField(1, "name", List.of("nguyen", "van", "an"), 1);
+        assertEquals(List.of(1L), ids(index.search(List.of("van", "nguy"), 10)));
+        assertTrue(index.search(List.of("nguy", "van"), 10).isEmpty());
+    }
+
+    @Test
+    void heavierFieldRanksHigher() {
+        InvertedIndex index = new InvertedIndex();
+        index.putField(1, "bio", List.of("java", "developer"), 1);
+        index.putField(1, "username", List.of("minh"), 3);
+        index.putField(2, "bio", List.of("minh", "developer"), 1);
+        index.putField(2, "username", List.of("java"), 3);
+        index.putField(3, "bio", List.of("designer"), 1);
+        assertEquals(List.of(2L, 1L), ids(index.search(List.of("java"), 10)));
+    }
+
+    @Test
+    void equalScoresOrderByLargerIdAndRespectLimit() {
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 1; id <= 5; id++) {
+            index.putField(id, "caption", List.of("sunset"), 1);
+        }
+        assertEquals(List.of(5L, 4L, 3L), ids(index.search(List.of("sunset"), 3)));
+    }
+
+    @Test
+    void replacingFieldDropsOldTerms() {
+        InvertedIndex index = new InvertedIndex();
+        index.putField(1, "caption", List.of("old", "text"), 1);
+        index.putField(1, "tags", List.of("travel"), 1);
+        index.putField(1, "caption", List.of("new", "text"), 1);
+        assertTrue(index.search(List.of("old"), 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search(List.of("new", "travel"), 10)));
+
+        // Xoá trường cuối cùng thì tài liệu biến mất
+        index.putField(1, "caption", List.of(), 1);
+        assertEquals(1, index.size());
+        index.putField(1, "tags", List.of(), 1);
+        assertEquals(0, index.size());
+        assertTrue(index.search(List.of("travel"), 10).isEmpty());
+    }
+
+    @Test
+    void removeDropsDocument() {
+        InvertedIndex index = new InvertedIndex();
+        index.putField(1, "caption", List.of("hello"), 1);
+        index.putField(2, "caption", List.of("hello"), 1);
+        index.remove(1);
+        index.remove(99);
+        assertEquals(1, index.size());
+        assertEquals(List.of(2L), ids(index.search(List.of("hello"), 10)));
+    }
+}
@@ -0,0 +1,148 @@
+package ra.social_media.utils;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ra.social_media.utils.Mp4ProbeTest.*;
+
+/**
+ * Thời gian và số byte Mp4Probe đọc trên một bộ file mẫu tổng hợp: mdat từ 1MB tới 4GB (file sparse, không tốn đĩa),
+ * moov đặt đầu file (faststart) hoặc cuối file, moov có box metadata lớn và nhiều track.
+ * Số byte đọc phải không phụ thuộc kích thước video. Chạy bằng ./gradlew benchmark.
+ */
+@Tag("benchmark")
+class Mp4ProbeBenchmark {
+
+    private static final int ITERATIONS = 2_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void probeCostIsIndependentOfFileSize() throws IOException {
+        byte[] simpleMoov = moov(mvhd(1000, 30_000), trak("soun", 0, 0, false), trak("vide", 1920, 1080, false));
+        // Box 4MB trong moov (metadata udta): probe nhảy qua bằng position(), không đọc nội dung
+        byte[] heavyMoov = moov(mvhd(90_000, 90_000 * 60), trak("soun", 0, 0, false), trak("soun", 0, 0, false),
+                trak("text", 0, 0, false), box("udta", new byte[4 << 20]), trak("vide", 1080, 1920, true));
+
+        List<Path> corpus = new ArrayList<>();
+        for (long mdatSize : new long[]{1L << 20, 64L << 20, 1L << 30, 4L << 30}) {
+            corpus.add(write("faststart-" + (mdatSize >> 20) + "MB", simpleMoov, mdatSize, true));
+            corpus.add(write("moov-last-" + (mdatSize >> 20) + "MB", simpleMoov, mdatSize, false));
+        }
+        corpus.add(write("heavy-moov-64MB", heavyMoov, 64L << 20, false));
+
+        long maxBytesRead = 0;
+        for (Path file : corpus) {
+            // Hâm nóng rồi đo
+            for (int i = 0; i < ITERATIONS / 4; i++) {
+                probe(file);
+            }
+            long bytesRead = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                bytesRead = probe(file);
+            }
+            double micros = (System.nanoTime() - start) / 1e3 / ITERATIONS;
+            maxBytesRead = Math.max(maxBytesRead, bytesRead);
+            System.out.printf("%-22s %10d bytes on disk: %7.1f us/probe, %5d bytes read%n",
+                    file.getFileName(), Files.size(file), micros, bytesRead);
+        }
+        // Chỉ header các box: vài trăm byte dù file 4GB hay box 4MB trong moov
+        assertTrue(maxBytesRead < 4_096, "read " + maxBytesRead + " bytes");
+    }
+
+    private static long probe(Path file) throws IOException {
+        try (CountingChannel channel = new CountingChannel(Files.newByteChannel(file))) {
+            Mp4Probe.Mp4Metadata metadata = Mp4Probe.probe(channel);
+            assertTrue(metadata.width() > 0 && metadata.durationMs() > 0);
+            return channel.bytesRead;
+        }
+    }
+
+    // ftyp, rồi moov và mdat (largesize 64 bit) theo thứ tự yêu cầu; phần dữ liệu mdat để trống (sparse)
+    private Path write(String name, byte[] moov, long mdatSize, boolean moovFirst) throws IOException {
+        Path path = dir.resolve(name + ".mp4");
+        byte[] mdatHeader = ByteBuffer.allocate(16).putInt(1).put("mdat".getBytes(StandardCharsets.ISO_8859_1))
+                .putLong(16 + mdatSize).array();
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.write(ftyp());
+            if (moovFirst) {
+                file.write(moov);
+            }
+            file.write(mdatHeader);
+            file.setLength(file.getFilePointer() + mdatSize);
+            file.seek(file.length());
+            if (!moovFirst) {
+                file.write(moov);
+            }
+        }
+        return path;
+    }
+
+    private static final class CountingChannel implements SeekableByteChannel {
+        private final SeekableByteChannel delegate;
+        private long bytesRead;
+
+        CountingChannel(SeekableByteChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int read = delegate.read(dst);
+            if (read > 0) {
+                bytesRead += read;
+            }
+            return read;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package ra.social_media.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Mp4ProbeTest {
+
+    private static final int IDENTITY = 0x00010000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsDimensionsAndDurationOfVideoTrack() throws IOException {
+        byte[] file = concat(ftyp(), moov(mvhd(1000, 5_250), trak("soun", 0, 0, false), trak("vide", 1920, 1080, false)), mdat(4096));
+        Mp4Probe.Mp4Metadata metadata = probe(file);
+        assertEquals(1920, metadata.width());
+        assertEquals(1080, metadata.height());
+        assertEquals(5_250, metadata.durationMs());
+    }
+
+    @Test
+    void swapsDimensionsOfRotatedTrack() throws IOException {
+        byte[] file = concat(ftyp(), moov(mvhd(600, 1_200), trak("vide", 1920, 1080, true)));
+        Mp4Probe.Mp4Metadata metadata = probe(file);
+        assertEquals(1080, metadata.width());
+        assertEquals(1920, metadata.height());
+        assertEquals(2_000, metadata.durationMs());
+    }
+
+    @Test
+    void skipsLargeMdatBeforeMoov() throws IOException {
+        // mdat dùng largesize 64 bit, moov nằm sau
+        byte[] mdat = new byte[16 + 100_000];
+        ByteBuffer.wrap(mdat).putInt(1).put("mdat".getBytes(StandardCharsets.ISO_8859_1)).putLong(mdat.length);
+        byte[] file = concat(ftyp(), mdat, moov(mvhd(1000, 1000), trak("vide", 640, 360, false)));
+        assertEquals(640, probe(file).width());
+    }
+
+    @Test
+    void readsSixtyFourBitDurationWithoutOverflow() throws IOException {
+        byte[] file = concat(ftyp(), moov(mvhdV1(90_000, 90_000L * 3_600 + 45_000), trak("vide", 640, 360, false)));
+        assertEquals(3_600_500, probe(file).durationMs());
+
+        // 2^63-1 đơn vị: nhân với 1000 sẽ tràn thành số âm
+        byte[] huge = concat(ftyp(), moov(mvhdV1(1, Long.MAX_VALUE), trak("vide", 640, 360, false)));
+        assertThrows(Mp4Probe.InvalidMp4Exception.class, () -> probe(huge));
+    }
+
+    @Test
+    void rejectsFileWithoutVideoTrack() {
+        byte[] file = concat(ftyp(), moov(mvhd(1000, 1000), trak("soun", 0, 0, false)));
+        assertThrows(Mp4Probe.InvalidMp4Exception.class, () -> probe(file));
+    }
+
+    @Test
+    void rejectsFileWithoutMvhd() {
+        byte[] file = concat(ftyp(), moov(trak("vide", 640, 360, false)));
+        assertThrows(Mp4Probe.InvalidMp4Exception.class, () -> probe(file));
+    }
+
+    @Test
+    void rejectsBoxLargerThanFile() {
+        byte[] file = concat(ftyp(), box("moov", new byte[8]));
+        ByteBuffer.wrap(file).putInt(ftyp().length, 1_000_000);
+        assertThrows(Mp4Probe.InvalidMp4Exception.class, () -> probe(file));
+    }
+
+    @Test
+    void recognisesIsoBmffByFirstBox() throws IOException {
+        try (SeekableByteChannel channel = channel(concat(ftyp(), mdat(16)))) {
+            assertTrue(Mp4Probe.looksLikeIsoBmff(channel));
+        }
+        try (SeekableByteChannel channel = channel("GIF89a not a video".getBytes(StandardCharsets.ISO_8859_1))) {
+            assertFalse(Mp4Probe.looksLikeIsoBmff(channel));
+        }
+        try (SeekableByteChannel channel = channel(new byte[4])) {
+            assertFalse(Mp4Probe.looksLikeIsoBmff(channel));
+        }
+        assertThrows(Mp4Probe.InvalidMp4Exception.class, () -> probe("GIF89a not a video".getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    private Mp4Probe.Mp4Metadata probe(byte[] file) throws IOException {
+        try (SeekableByteChannel channel = channel(file)) {
+            return Mp4Probe.probe(channel);
+        }
+    }
+
+    private SeekableByteChannel channel(byte[] file) throws IOException {
+        Path path = Files.createTempFile(dir, "video", ".mp4");
+        Files.write(path, file);
+        return Files.newByteChannel(path);
+    }
+
+    static byte[] ftyp() {
+        return box("ftyp", "isom\0\0\2\0isomiso2mp41".getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    static byte[] mdat(int length) {
+        return box("mdat", new byte[length]);
+    }
+
+    static byte[] moov(byte[]... children) {
+        return box("moov", concat(children));
+    }
+
+    static byte[] mvhd(int timescale, int duration) {
+        ByteBuffer payload = ByteBuffer.allocate(100);
+        payload.putInt(12, timescale).putInt(16, duration);
+        return box("mvhd", payload.array());
+    }
+
+    static byte[] mvhdV1(int timescale, long duration) {
+        ByteBuffer payload = ByteBuffer.allocate(112);
+        payload.put(0, (byte) 1).putInt(20, timescale).putLong(24, duration);
+        return box("mvhd", payload.array());
+    }
+
+    static byte[] trak(String handler, int width, int height, boolean rotated) {
+        ByteBuffer tkhd = ByteBuffer.allocate(84);
+        // Ma trận 3x3 ở offset 40: a, b, u, c, d, v, x, y, w
+        if (rotated) {
+            tkhd.putInt(44, IDENTITY).putInt(52, -IDENTITY);
+        } else {
+            tkhd.putInt(40, IDENTITY).putInt(56, IDENTITY);
+        }
+        tkhd.putInt(72, 0x40000000);
+        tkhd.putInt(76, width << 16).putInt(80, height << 16);
+
+        ByteBuffer hdlr = ByteBuffer.allocate(25);
+        hdlr.position(8);
+        hdlr.put(handler.getBytes(StandardCharsets.ISO_8859_1));
+
+        byte[] mdia = box("mdia", concat(box("mdhd", new byte[24]), box("hdlr", hdlr.array()), box("minf", new byte[8])));
+        return box("trak", concat(box("tkhd", tkhd.array()), mdia));
+    }
+
+    static byte[] box(String type, byte[] payload) {
+        ByteBuffer box = ByteBuffer.allocate(8 + payload.length);
+        box.putInt(8 + payload.length).put(type.getBytes(StandardCharsets.ISO_8859_1)).put(payload);
+        return box.array();
+    }
+
+    static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,97 @@
+package ra.social_media.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoaringBitmapTest {
+
+    @Test
+    void addRemoveContains() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        assertTrue(bitmap.add(7));
+        assertFalse(bitmap.add(7));
+        assertTrue(bitmap.add(0xFFFFFFFFL));
+        assertTrue(bitmap.contains(7));
+        assertTrue(bitmap.contains(0xFFFFFFFFL));
+        assertFalse(bitmap.contains(8));
+        assertEquals(2, bitmap.cardinality());
+
+        assertTrue(bitmap.remove(7));
+        assertFalse(bitmap.remove(7));
+        assertFalse(bitmap.contains(7));
+        assertEquals(1, bitmap.cardinality());
+    }
+
+    @Test
+    void rejectsValuesOutsideUnsigned32Bits() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(1L << 32));
+        assertFalse(bitmap.contains(-1));
+        assertFalse(bitmap.contains(1L << 32));
+        assertFalse(bitmap.remove(-1));
+
+        // Giá trị ngoài 32 bit không được xoá nhầm phần tử trùng 32 bit thấp
+        bitmap.add(5);
+        assertFalse(bitmap.remove(0x1_0000_0005L));
+        assertTrue(bitmap.contains(5));
+    }
+
+    @Test
+    void denseContainerSwitchesToBitmapAndBack() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int i = 0; i < 10_000; i++) {
+            bitmap.add(i);
+        }
+        assertEquals(10_000, bitmap.cardinality());
+        // Một khối dày: 8KB bitmap thay vì 20KB mảng char
+        assertTrue(bitmap.sizeInBytes() <= 8192 + 64, "size " + bitmap.sizeInBytes());
+
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 5 != 0) {
+                assertTrue(bitmap.remove(i));
+            }
+        }
+        assertEquals(2_000, bitmap.cardinality());
+        assertTrue(bitmap.sizeInBytes() < 8192, "size " + bitmap.sizeInBytes());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i % 5 == 0, bitmap.contains(i), "value " + i);
+        }
+    }
+
+    @Test
+    void matchesTreeSetUnderRandomOperations() {
+        Random random = new Random(42);
+        RoaringBitmap bitmap = new RoaringBitmap();
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int op = 0; op < 200_000; op++) {
+            // Dồn giá trị vào vài khối để có cả khối thưa lẫn khối dày
+            long value = ((long) random.nextInt(8) << 16) | random.nextInt(op < 100_000 ? 65536 : 8192);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), bitmap.remove(value));
+            } else {
+                assertEquals(expected.add(value), bitmap.add(value));
+            }
+        }
+        assertEquals(expected.size(), bitmap.cardinality());
+        for (long value = 0; value < 8L << 16; value++) {
+            assertEquals(expected.contains(value), bitmap.contains(value), "value " + value);
+        }
+    }
+
+    @Test
+    void emptyContainerIsDropped() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        bitmap.add(5L << 16);
+        bitmap.add(9L << 16);
+        bitmap.remove(5L << 16);
+        assertEquals(1, bitmap.cardinality());
+        assertFalse(bitmap.contains(5L << 16));
+        assertTrue(bitmap.contains(9L << 16));
+        assertTrue(bitmap.add(5L << 16));
+    }
+}
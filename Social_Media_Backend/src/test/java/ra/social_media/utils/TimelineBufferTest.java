@@ -0,0 +1,97 @@
+package ra.social_media.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineBufferTest {
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TimelineBuffer(0));
+    }
+
+    @Test
+    void slicesNewestFirstBeforeCursor() {
+        TimelineBuffer buffer = new TimelineBuffer(10);
+        for (long i = 1; i <= 5; i++) {
+            buffer.add(i * 100, i);
+        }
+        assertArrayEquals(new long[]{5, 4, 3}, buffer.sliceBefore(Long.MAX_VALUE, Long.MAX_VALUE, 3));
+        // Con trỏ là phần tử cuối trang trước, không được lặp lại
+        assertArrayEquals(new long[]{2, 1}, buffer.sliceBefore(300, 3, 3));
+        assertArrayEquals(new long[0], buffer.sliceBefore(100, 1, 3));
+    }
+
+    @Test
+    void keepsOrderForOutOfOrderAndTiedInserts() {
+        TimelineBuffer buffer = new TimelineBuffer(10);
+        buffer.add(300, 3);
+        buffer.add(100, 1);
+        buffer.add(200, 7);
+        buffer.add(200, 2);
+        assertArrayEquals(new long[]{3, 7, 2, 1}, buffer.sliceBefore(Long.MAX_VALUE, Long.MAX_VALUE, 10));
+        // Cùng createdAt: postId nhỏ hơn nằm sau con trỏ (200, 7)
+        assertArrayEquals(new long[]{2, 1}, buffer.sliceBefore(200, 7, 10));
+    }
+
+    @Test
+    void ignoresDuplicateEntries() {
+        TimelineBuffer buffer = new TimelineBuffer(10);
+        buffer.add(100, 1);
+        buffer.add(200, 2);
+        buffer.add(300, 3);
+        buffer.add(200, 2);
+        buffer.add(300, 3);
+        assertEquals(3, buffer.size());
+        assertArrayEquals(new long[]{3, 2, 1}, buffer.sliceBefore(Long.MAX_VALUE, Long.MAX_VALUE, 10));
+    }
+
+    @Test
+    void dropsOldestWhenFullAndMarksTruncated() {
+        TimelineBuffer buffer = new TimelineBuffer(4);
+        assertEquals(Long.MIN_VALUE, buffer.oldestCreatedAt());
+        for (long i = 1; i <= 10; i++) {
+            buffer.add(i * 10, i);
+        }
+        assertEquals(4, buffer.size());
+        assertTrue(buffer.isTruncated());
+        assertEquals(70, buffer.oldestCreatedAt());
+        assertEquals(7, buffer.oldestPostId());
+        assertArrayEquals(new long[]{10, 9, 8, 7}, buffer.sliceBefore(Long.MAX_VALUE, Long.MAX_VALUE, 10));
+
+        // Cũ hơn phần tử cũ nhất của buffer đầy: bỏ qua
+        buffer.add(5, 99);
+        assertArrayEquals(new long[]{10, 9, 8, 7}, buffer.sliceBefore(Long.MAX_VALUE, Long.MAX_VALUE, 10));
+
+        // Chèn vào giữa khi vòng đã quay: phần tử cũ nhất bị đẩy ra
+        buffer.add(85, 50);
+        assertArrayEquals(new long[]{10, 9, 50, 8}, buffer.sliceBefore(Long.MAX_VALUE, Long.MAX_VALUE, 10));
+    }
+
+    @Test
+    void removesByPostId() {
+        TimelineBuffer buffer = new TimelineBuffer(3);
+        for (long i = 1; i <= 5; i++) {
+            buffer.add(i, i);
+        }
+        buffer.remove(4);
+        buffer.remove(42);
+        assertEquals(2, buffer.size());
+        assertArrayEquals(new long[]{5, 3}, buffer.sliceBefore(Long.MAX_VALUE, Long.MAX_VALUE, 10));
+        buffer.add(6, 6);
+        assertArrayEquals(new long[]{6, 5, 3}, buffer.sliceBefore(Long.MAX_VALUE, Long.MAX_VALUE, 10));
+    }
+
+    @Test
+    void sliceEntriesReturnsCreatedAtAndPostIdPairs() {
+        TimelineBuffer buffer = new TimelineBuffer(8);
+        buffer.add(100, 1);
+        buffer.add(200, 2);
+        buffer.add(300, 3);
+        assertArrayEquals(new long[]{200, 2, 100, 1}, buffer.sliceEntriesBefore(300, 3, 5));
+        assertFalse(buffer.isTruncated());
+        buffer.markTruncated();
+        assertTrue(buffer.isTruncated());
+    }
+}